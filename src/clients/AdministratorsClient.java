@@ -1,5 +1,6 @@
 package clients;
 
+import java.util.List;
 import java.util.Scanner;
 
 import org.omg.CORBA.ORB;
@@ -13,6 +14,7 @@ import org.omg.CosNaming.NamingContextPackage.NotFound;
 import corbautils.GameServer;
 import corbautils.GameServerHelper;
 import exceptions.UnknownServerRegionException;
+import topology.Topology;
 
 public class AdministratorsClient extends CoreClient {
 	
@@ -31,7 +33,17 @@ public class AdministratorsClient extends CoreClient {
 				+ "2. Sign out admin\n"
 				+ "3. Get status of all players playing the game\n"
 				+ "4. Suspend a Player account\n"
-				+ "5. Exit the CLI\n"
+				+ "5. Migrate Players to another region\n"
+				+ "6. Get status of region migrations\n"
+				+ "7. Split a region onto a new shard\n"
+				+ "8. Get status of region splits\n"
+				+ "9. Promote a region backup to primary\n"
+				+ "10. Get operation metrics of a region's servers\n"
+				+ "11. List the Players of a region\n"
+				+ "12. Find or count Players by IP subnet, status and age\n"
+				+ "13. Import Players from a file on the region's servers\n"
+				+ "14. Export the Players of a region to a file on its servers\n"
+				+ "15. Exit the CLI\n"
 				+ "--------------------------\n";
 		while(true) {
 			System.out.println(MENU_STRING);
@@ -53,6 +65,46 @@ public class AdministratorsClient extends CoreClient {
 					break;
 				}
 				case "5": {
+					adminMigratePlayers();
+					break;
+				}
+				case "6": {
+					adminGetMigrationStatus();
+					break;
+				}
+				case "7": {
+					adminSplitRegion();
+					break;
+				}
+				case "8": {
+					adminGetSplitStatus();
+					break;
+				}
+				case "9": {
+					adminPromoteBackup();
+					break;
+				}
+				case "10": {
+					adminGetServerMetrics();
+					break;
+				}
+				case "11": {
+					adminListPlayers();
+					break;
+				}
+				case "12": {
+					adminFindPlayers();
+					break;
+				}
+				case "13": {
+					adminImportPlayers();
+					break;
+				}
+				case "14": {
+					adminExportPlayers();
+					break;
+				}
+				case "15": {
 					System.out.println("Goodbye!");
 					System.exit(0);
 				}
@@ -171,6 +223,309 @@ public class AdministratorsClient extends CoreClient {
 
 	}
 
+	private static void adminMigratePlayers() {
+		String uName;
+		String password;
+		String ipAddress;
+		String targetRegion;
+		String uNamePrefix;
+		String ipSubnet;
+		boolean offlineOnly;
+		int batchSize;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		targetRegion = getSafeStringInput(String.format("Enter Target Region %s:", Topology.getDefault().getRegionIds()));
+		uNamePrefix = getSafeStringInput("Enter User Name prefix to migrate (* for all):");
+		ipSubnet = getSafeStringInput("Enter IP subnet to migrate, e.g. 132.168.2.0/24 (* for all):");
+		offlineOnly = getSafeStringInput("Migrate offline Players only? (y/n):").equalsIgnoreCase("y");
+		batchSize = getSafeIntInput("Enter batch size:");
+		
+		try {
+			realizeMigratePlayers(uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+	
+	private static void adminGetMigrationStatus() {
+		String uName;
+		String password;
+		String ipAddress;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		
+		try {
+			realizeGetMigrationStatus(uName, password, ipAddress);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminSplitRegion() {
+		String uName;
+		String password;
+		String ipAddress;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("NOTE: Start the new shard with GameServerLauncher <region> <next shard index> before splitting!");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		
+		try {
+			realizeSplitRegion(uName, password, ipAddress);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+	
+	private static void adminGetSplitStatus() {
+		String uName;
+		String password;
+		String ipAddress;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		
+		try {
+			realizeGetSplitStatus(uName, password, ipAddress);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminPromoteBackup() {
+		String uName;
+		String password;
+		String ipAddress;
+		int shardIndex;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		shardIndex = getSafeIntInput("Enter the shard whose backup to promote (0 for a region with one shard):");
+		
+		try {
+			realizePromoteBackup(uName, password, ipAddress, shardIndex);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminGetServerMetrics() {
+		String uName;
+		String password;
+		String ipAddress;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		
+		try {
+			realizeGetServerMetrics(uName, password, ipAddress);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminListPlayers() {
+		String uName;
+		String password;
+		String ipAddress;
+		String status;
+		String uNamePrefix;
+		int pageSize;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		status = getSafeStringInput("Enter Player status to list (online, offline or * for all):");
+		uNamePrefix = getSafeStringInput("Enter User Name prefix to list (* for all):");
+		pageSize = getSafeIntInput("Enter page size:");
+		
+		try {
+			realizeListPlayers(uName, password, ipAddress, status, uNamePrefix, pageSize);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminFindPlayers() {
+		String uName;
+		String password;
+		String ipAddress;
+		String ipSubnet;
+		String status;
+		int minAge;
+		int maxAge;
+		boolean countOnly;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		ipSubnet = getSafeStringInput("Enter IP subnet of the Players, e.g. 132.168.2.0/24 (* for all):");
+		status = getSafeStringInput("Enter Player status (online, offline or * for all):");
+		minAge = getSafeIntInput("Enter minimum age:");
+		maxAge = getSafeIntInput("Enter maximum age:");
+		countOnly = getSafeStringInput("Count the Players only? (y/n):").equalsIgnoreCase("y");
+		
+		try {
+			realizeFindPlayers(uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminImportPlayers() {
+		String uName;
+		String password;
+		String ipAddress;
+		String path;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		path = getSafeStringInput("Enter name of the file to read from the servers' bulk directory (.csv, or .bin for binary):");
+		
+		try {
+			realizeImportPlayers(uName, password, ipAddress, path);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
+	private static void adminExportPlayers() {
+		String uName;
+		String password;
+		String ipAddress;
+		String path;
+		
+		setLoggingContext("UNRESOLVED", "UnresolvedIP", true);
+		uName = getSafeStringInput("Enter User Name:");
+		password = getSafeStringInput("Enter Password:");
+		System.out.println("Enter IP Address:");
+		ipAddress = getIpAddressInput();
+		path = getSafeStringInput("Enter name of a new file to write in the servers' bulk directory (.csv, or .bin for binary):");
+		
+		try {
+			realizeExportPlayers(uName, password, ipAddress, path);
+		} catch(InvalidName | NotFound | CannotProceed | org.omg.CosNaming.NamingContextPackage.InvalidName e) {
+			String err = "ERROR: CORBA services encountered an error";
+			System.out.println(err);
+			adminLog(err, uName, getRegionServer(ipAddress));
+		} catch (org.omg.CORBA.SystemException e) {
+			handleServerDown(uName, ipAddress, e);
+		} catch (UnknownServerRegionException e) {
+			String err = "ERROR: Unknown Server for IP address!";
+			System.out.println(err);
+			adminLog(err, uName, "Unknown Server");
+		}
+		
+	}
+
 	private static void setRegionORB(String regionString) throws UnknownServerRegionException, InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName {
 		if(regionString.equals("Unknown Server")) throw new UnknownServerRegionException();
 		
@@ -216,14 +571,132 @@ public class AdministratorsClient extends CoreClient {
 	}
 	
 	private static void realizeSuspendAccount(String uName, String password, String ipAddress, String uNameToSuspend) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
-		String regionString = getRegionServer(ipAddress);
+		String regionString = getShardServer(ipAddress, uNameToSuspend);
 		setRegionORB(regionString);
 		
 		String retStatement = serverStub.suspendAccount(uName, password, ipAddress, uNameToSuspend);
+		if(getRedirectServer(retStatement) != null) {
+			setRegionORB(getRedirectServer(retStatement));
+			retStatement = serverStub.suspendAccount(uName, password, ipAddress, uNameToSuspend);
+		}
+		System.out.println(retStatement);
+		adminLog(retStatement, uName, getRegionServer(ipAddress));
+	}
+	
+	private static void realizeMigratePlayers(String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard migrates the players it owns
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String retStatement = serverStub.migratePlayers(uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize);
+			System.out.println(retStatement);
+			adminLog(retStatement, uName, getRegionServer(ipAddress));
+		}
+	}
+	
+	private static void realizeGetMigrationStatus(String uName, String password, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String retStatement = serverStub.getMigrationStatus(uName, password, ipAddress);
+			System.out.println(retStatement);
+			adminLog(retStatement, uName, getRegionServer(ipAddress));
+		}
+	}
+	
+	private static void realizeSplitRegion(String uName, String password, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// the region's first shard coordinates the split
+		String regionString = getRegionServer(ipAddress);
+		setRegionORB(regionString);
+		
+		String retStatement = serverStub.splitRegion(uName, password, ipAddress);
+		System.out.println(retStatement);
+		adminLog(retStatement, uName, getRegionServer(ipAddress));
+	}
+	
+	private static void realizeGetSplitStatus(String uName, String password, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		String regionString = getRegionServer(ipAddress);
+		setRegionORB(regionString);
+		
+		String retStatement = serverStub.getSplitStatus(uName, password, ipAddress);
 		System.out.println(retStatement);
 		adminLog(retStatement, uName, getRegionServer(ipAddress));
 	}
 	
+	private static void realizePromoteBackup(String uName, String password, String ipAddress, int shardIndex) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		String backupString = getRegionServer(ipAddress) + "-" + shardIndex + "-backup";
+		setRegionORB(backupString);
+		
+		String retStatement = serverStub.promoteBackup(uName, password, ipAddress);
+		System.out.println(retStatement);
+		adminLog(retStatement, uName, getRegionServer(ipAddress));
+	}
+	
+	private static void realizeGetServerMetrics(String uName, String password, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard keeps its own metrics
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String retStatement = serverStub.getServerMetrics(uName, password, ipAddress);
+			System.out.println(retStatement);
+			adminLog(retStatement, uName, getRegionServer(ipAddress));
+		}
+	}
+	
+	private static void realizeListPlayers(String uName, String password, String ipAddress, String status, String uNamePrefix, int pageSize) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard lists the players it stores, a page at a time
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String cursor = "";
+			while(true) {
+				String retStatement = serverStub.listPlayers(uName, password, ipAddress, cursor, pageSize, status, uNamePrefix);
+				System.out.println(retStatement);
+				adminLog(retStatement.split("\n")[0], uName, getRegionServer(ipAddress));
+				
+				String lastLine = retStatement.substring(retStatement.lastIndexOf('\n') + 1);
+				if(!lastLine.startsWith("Next cursor: ")) break;
+				cursor = lastLine.substring("Next cursor: ".length());
+				if(!getSafeStringInput("Show the next page? (y/n):").equalsIgnoreCase("y")) return;
+			}
+		}
+	}
+	
+	private static void realizeFindPlayers(String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard answers for the players it stores
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String retStatement = serverStub.findPlayers(uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly);
+			System.out.println(retStatement);
+			adminLog(retStatement.split("\n")[0], uName, getRegionServer(ipAddress));
+		}
+	}
+	
+	private static void realizeImportPlayers(String uName, String password, String ipAddress, String path) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard reads the whole file and keeps the players it owns
+		for(String shardString : getRegionShardServers(ipAddress)) {
+			setRegionORB(shardString);
+			
+			String retStatement = serverStub.importPlayers(uName, password, ipAddress, path);
+			System.out.println(retStatement);
+			adminLog(retStatement, uName, getRegionServer(ipAddress));
+		}
+	}
+	
+	private static void realizeExportPlayers(String uName, String password, String ipAddress, String path) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName, UnknownServerRegionException {
+		// every shard writes the players it stores, to a file of its own when there are several
+		List<String> shardStrings = getRegionShardServers(ipAddress);
+		for(int index = 0; index < shardStrings.size(); index++) {
+			setRegionORB(shardStrings.get(index));
+			
+			String shardPath = shardStrings.size() == 1 ? path : path.replaceFirst("(\\.[^./]*)?$", "-" + index + "$1");
+			String retStatement = serverStub.exportPlayers(uName, password, ipAddress, shardPath);
+			System.out.println(retStatement);
+			adminLog(retStatement, uName, getRegionServer(ipAddress));
+		}
+	}
+	
 	private static void handleServerDown(String uName, String ipAddress, Exception e) {
 		String err = "ERROR: Region server is not active";
 		System.out.println(err);
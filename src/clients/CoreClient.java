@@ -6,15 +6,24 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import exceptions.UnknownServerRegionException;
+import topology.IPv4;
+import topology.Region;
+import topology.Shard;
+import topology.Topology;
 
 public class CoreClient {
 	private static String uName;
 	private static String ipAddress;
 	private static String serverToConnect;
 	private static boolean isAdmin;
+	private static final Pattern REDIRECT_PATTERN = Pattern.compile("belongs to (GameServer\\S+)$");
 	
 	private static Scanner sc = new Scanner(System.in);
 	
@@ -31,30 +40,43 @@ public class CoreClient {
 	}
 	
 	private static boolean isValidIP(String ipAddr) {
-		if(ipAddr == null) return false;
-		
-		String[] groups = ipAddr.split("\\.");
-
-		if (groups.length != 4) {
-			return false;
-		}
-		
-		return true;
+		return IPv4.isValid(ipAddr);
 	}
 	
 	protected static String getRegionServer(String ipAddress) {
 		if(isValidIP(ipAddress)) {
-			if(ipAddress.startsWith("132")) {
-				return "GameServerNA";
-			} else if (ipAddress.startsWith("93")) {
-				return "GameServerEU";
-			} else if (ipAddress.startsWith("182")) {
-				return "GameServerAS";
-			} else return "Unknown Server";
+			try {
+				return Topology.getDefault().getRegionForIpAddress(ipAddress).getServerName();
+			} catch (UnknownServerRegionException e) {
+				return "Unknown Server";
+			}
+		} 
+		return null;
+	}
+	
+	
+	// the shard of the IP address's region that owns uName
+	protected static String getShardServer(String ipAddress, String uName) {
+		if(isValidIP(ipAddress)) {
+			try {
+				return Topology.getDefault().getRegionForIpAddress(ipAddress).getShardFor(uName).getServerName();
+			} catch (UnknownServerRegionException e) {
+				return "Unknown Server";
+			}
 		} 
 		return null;
 	}
 	
+	protected static List<String> getRegionShardServers(String ipAddress) throws UnknownServerRegionException {
+		return Topology.getDefault().getRegionForIpAddress(ipAddress).getShards().stream()
+				.map(Shard::getServerName).collect(Collectors.toList());
+	}
+	
+	// a shard that has handed a username over to a newer shard answers with that shard's name
+	protected static String getRedirectServer(String retStatement) {
+		Matcher redirect = REDIRECT_PATTERN.matcher(retStatement);
+		return redirect.find() ? redirect.group(1) : null;
+	}
 	
 	protected static String getIpAddressInput() {
 		
@@ -140,7 +162,7 @@ public class CoreClient {
 	}
 	
 	protected static synchronized void adminLog(String logStatement, String uName, String serverToConnect) {
-		 ArrayList<String> REGION_LIST = new ArrayList<String>(Arrays.asList("GameServerNA","GameServerEU","GameServerAS"));
+		 List<String> REGION_LIST = Topology.getDefault().getRegions().stream().map(Region::getServerName).collect(Collectors.toList());
 		 if(!REGION_LIST.contains(serverToConnect)) serverToConnect = "GameServerUNRESOLVED";
 		 DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");  
 		 LocalDateTime tStamp = LocalDateTime.now(); 
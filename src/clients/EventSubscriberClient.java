@@ -0,0 +1,82 @@
+package clients;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import exceptions.UnknownServerRegionException;
+import topology.Shard;
+import topology.Topology;
+
+// Prints the player events of one shard as they happen, reconnecting and resuming after the last event seen.
+// Usage: EventSubscriberClient <region> [shard] [last sequence seen, 0 for every event kept, -1 for new ones only]
+public class EventSubscriberClient {
+
+	private static final int RECONNECT_INTERVAL_IN_MILLIS = 1000;
+
+	public static void main(String[] args) throws InterruptedException {
+		if(args.length < 1) {
+			System.err.println("Usage: EventSubscriberClient <region> [shard] [sequence] -- regions: " + Topology.getDefault().getRegionIds());
+			System.exit(1);
+		}
+		Shard shard;
+		try {
+			shard = Topology.getDefault().getRegion(args[0]).getShard(args.length > 1 ? Integer.parseInt(args[1]) : 0);
+		} catch(UnknownServerRegionException | IllegalArgumentException e) {
+			System.err.println("ERROR: Unknown region or shard -- regions: " + Topology.getDefault().getRegionIds());
+			System.exit(1);
+			return;
+		}
+		long lastSeen = args.length > 2 ? Long.parseLong(args[2]) : -1;
+		String epoch = null;
+
+		while(true) {
+			try(Socket socket = new Socket(shard.getHost(), shard.getEventPort())) {
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+				out.write(epoch == null ? lastSeen + "\n" : lastSeen + " " + epoch + "\n");
+				out.flush();
+
+				String headerLine = in.readLine();
+				String[] header = headerLine == null ? new String[0] : headerLine.split(" ");
+				if(header.length < 5 || !header[0].equals("STREAM")) throw new IOException("no stream header");
+				// a restarted servant numbers its events afresh, and sends every event it has kept
+				if(epoch != null && !epoch.equals(header[2])) {
+					System.out.println(String.format("-- %s restarted, numbering starts over", header[1]));
+					lastSeen = 0;
+				}
+				epoch = header[2];
+				long from = parseSequence(header[4]);
+				if(lastSeen > 0 && from > lastSeen + 1) System.out.println(String.format("-- events #%d to #%d are no longer kept", lastSeen + 1, from - 1));
+
+				for(String line = in.readLine(); line != null; line = in.readLine()) {
+					if(line.startsWith("BATCH ")) continue;
+					if(line.startsWith("DROPPED ")) {
+						System.out.println("-- dropped for falling behind, resuming");
+						break;
+					}
+					int separator = line.indexOf('\t');
+					if(separator < 0) throw new IOException("malformed event line");
+					lastSeen = parseSequence(line.substring(0, separator));
+					System.out.println(line);
+				}
+			} catch(IOException e) {
+				System.out.println(String.format("-- no event stream on %s:%d (%s), retrying", shard.getHost(), shard.getEventPort(), e.getMessage()));
+			}
+			Thread.sleep(RECONNECT_INTERVAL_IN_MILLIS);
+		}
+	}
+
+	// a garbled line drops the connection like any other stream error, and the subscriber resumes after its last event
+	private static long parseSequence(String sequence) throws IOException {
+		try {
+			return Long.parseLong(sequence);
+		} catch(NumberFormatException e) {
+			throw new IOException("malformed sequence number '" + sequence + "'");
+		}
+	}
+}
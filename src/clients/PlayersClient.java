@@ -19,7 +19,9 @@ public class PlayersClient extends CoreClient {
 	private static Scanner sc = new Scanner(System.in);
 	private static GameServer serverStub; 
 	private static String[] CLIENT_ORB_ARGS;
-	
+	private static final int TRANSFER_POLL_ATTEMPTS = 30;
+	private static final int TRANSFER_POLL_INTERVAL_IN_MILLIS = 500;
+
 	
 	public static void main(String[] args) {
 		final String[] defaultORBArgs = { "-ORBInitialPort", "1050" };
@@ -173,7 +175,7 @@ public class PlayersClient extends CoreClient {
 		do {
 			System.out.println("NOTE: Ensure that the region of the IP Address to Transfer is different from your current region!");
 			newIpAddress = getIpAddressInput();
-		} while(newIpAddress.startsWith(oldIpAddress.substring(0,3)));
+		} while(getRegionServer(newIpAddress).equals(getRegionServer(oldIpAddress)));
 		
 		try {
 			realizePlayerTransferAccount(uName, password, oldIpAddress, newIpAddress);
@@ -189,26 +191,50 @@ public class PlayersClient extends CoreClient {
 	
 	private static void realizePlayerTransferAccount(String uName, String password, String oldIpAddress,
 			String newIpAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName {
-		String regionString = getRegionServer(oldIpAddress);
+		String regionString = getShardServer(oldIpAddress, uName);
 		try {
 			setRegionORB(regionString);
 			
 			String retStatement = serverStub.transferAccount(uName, password, oldIpAddress, newIpAddress);
+			if(getRedirectServer(retStatement) != null) {
+				setRegionORB(getRedirectServer(retStatement));
+				retStatement = serverStub.transferAccount(uName, password, oldIpAddress, newIpAddress);
+			}
 			System.out.println(retStatement);
 			playerLog(retStatement, uName, oldIpAddress);
+
+			// the server resolves the transfer asynchronously, poll until it leaves PENDING
+			for(int attempt = 0; retStatement.contains(" is PENDING") && attempt < TRANSFER_POLL_ATTEMPTS; attempt++) {
+				try {
+					Thread.sleep(TRANSFER_POLL_INTERVAL_IN_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				String status = serverStub.getTransferStatus(uName, password, oldIpAddress);
+				if(!status.equals(retStatement)) {
+					System.out.println(status);
+					playerLog(status, uName, oldIpAddress);
+				}
+				retStatement = status;
+			}
 		} catch(UnknownServerRegionException e) {
 			String log = "The server for which the ORB is to be created is unknown";
 			playerLog(log, uName, oldIpAddress);
 		}
-		
+
 	}
 
 	private static void realizeCreatePlayerAccount(String fName, String lName, String uName, String password, int age, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName {
-		String regionString = getRegionServer(ipAddress);
+		String regionString = getShardServer(ipAddress, uName);
 		try {
 			setRegionORB(regionString);
 			
 			String retStatement = serverStub.createPlayerAccount(fName, lName, uName, password, ipAddress, age);
+			if(getRedirectServer(retStatement) != null) {
+				setRegionORB(getRedirectServer(retStatement));
+				retStatement = serverStub.createPlayerAccount(fName, lName, uName, password, ipAddress, age);
+			}
 			System.out.println(retStatement);
 			playerLog(retStatement, uName, ipAddress);
 		} catch(UnknownServerRegionException e) {
@@ -219,11 +245,15 @@ public class PlayersClient extends CoreClient {
 	
 	private static void realizePlayerSignIn(String uName, String password, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName {
 		try {
-			String regionString = getRegionServer(ipAddress);
+			String regionString = getShardServer(ipAddress, uName);
 			
 			setRegionORB(regionString);
 			
 			String retStatement = serverStub.playerSignIn(uName, password, ipAddress);
+			if(getRedirectServer(retStatement) != null) {
+				setRegionORB(getRedirectServer(retStatement));
+				retStatement = serverStub.playerSignIn(uName, password, ipAddress);
+			}
 			System.out.println(retStatement);
 			playerLog(retStatement, uName, ipAddress);
 		} catch(UnknownServerRegionException e) {
@@ -234,11 +264,15 @@ public class PlayersClient extends CoreClient {
 
 	private static void realizePlayerSignOut(String uName, String ipAddress) throws InvalidName, NotFound, CannotProceed, org.omg.CosNaming.NamingContextPackage.InvalidName {
 		try {
-			String regionString = getRegionServer(ipAddress);
+			String regionString = getShardServer(ipAddress, uName);
 			
 			setRegionORB(regionString);
 			
 			String retStatement = serverStub.playerSignOut(uName, ipAddress);
+			if(getRedirectServer(retStatement) != null) {
+				setRegionORB(getRedirectServer(retStatement));
+				retStatement = serverStub.playerSignOut(uName, ipAddress);
+			}
 			System.out.println(retStatement);
 			playerLog(retStatement, uName, ipAddress);
 		} catch(UnknownServerRegionException e) {
@@ -17,5 +17,16 @@ public interface GameServerOperations
   String adminSignOut (String uName, String ipAddress);
   String getPlayerStatus (String uName, String password, String ipAddress);
   String transferAccount (String uName, String password, String oldIpAddress, String newIpAddress);
+  String getTransferStatus (String uName, String password, String ipAddress);
   String suspendAccount (String uName, String password, String ipAddress, String uNameToSuspend);
+  String migratePlayers (String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize);
+  String getMigrationStatus (String uName, String password, String ipAddress);
+  String splitRegion (String uName, String password, String ipAddress);
+  String getSplitStatus (String uName, String password, String ipAddress);
+  String promoteBackup (String uName, String password, String ipAddress);
+  String getServerMetrics (String uName, String password, String ipAddress);
+  String listPlayers (String uName, String password, String ipAddress, String cursor, int pageSize, String status, String uNamePrefix);
+  String findPlayers (String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly);
+  String importPlayers (String uName, String password, String ipAddress, String path);
+  String exportPlayers (String uName, String password, String ipAddress, String path);
 } // interface GameServerOperations
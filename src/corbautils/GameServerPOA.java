@@ -24,7 +24,18 @@ public abstract class GameServerPOA extends org.omg.PortableServer.Servant
     _methods.put ("adminSignOut", new java.lang.Integer (4));
     _methods.put ("getPlayerStatus", new java.lang.Integer (5));
     _methods.put ("transferAccount", new java.lang.Integer (6));
-    _methods.put ("suspendAccount", new java.lang.Integer (7));
+    _methods.put ("getTransferStatus", new java.lang.Integer (7));
+    _methods.put ("suspendAccount", new java.lang.Integer (8));
+    _methods.put ("migratePlayers", new java.lang.Integer (9));
+    _methods.put ("getMigrationStatus", new java.lang.Integer (10));
+    _methods.put ("splitRegion", new java.lang.Integer (11));
+    _methods.put ("getSplitStatus", new java.lang.Integer (12));
+    _methods.put ("promoteBackup", new java.lang.Integer (13));
+    _methods.put ("getServerMetrics", new java.lang.Integer (14));
+    _methods.put ("listPlayers", new java.lang.Integer (15));
+    _methods.put ("findPlayers", new java.lang.Integer (16));
+    _methods.put ("importPlayers", new java.lang.Integer (17));
+    _methods.put ("exportPlayers", new java.lang.Integer (18));
   }
 
   public org.omg.CORBA.portable.OutputStream _invoke (String $method,
@@ -124,7 +135,19 @@ public abstract class GameServerPOA extends org.omg.PortableServer.Servant
          break;
        }
 
-       case 7:  // CoreGameServerIDL/GameServer/suspendAccount
+       case 7:  // CoreGameServerIDL/GameServer/getTransferStatus
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.getTransferStatus (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 8:  // CoreGameServerIDL/GameServer/suspendAccount
        {
          String uName = in.read_string ();
          String password = in.read_string ();
@@ -137,6 +160,142 @@ public abstract class GameServerPOA extends org.omg.PortableServer.Servant
          break;
        }
 
+       case 9:  // CoreGameServerIDL/GameServer/migratePlayers
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String targetRegion = in.read_string ();
+         String uNamePrefix = in.read_string ();
+         String ipSubnet = in.read_string ();
+         boolean offlineOnly = in.read_boolean ();
+         int batchSize = in.read_long ();
+         String $result = null;
+         $result = this.migratePlayers (uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 10:  // CoreGameServerIDL/GameServer/getMigrationStatus
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.getMigrationStatus (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 11:  // CoreGameServerIDL/GameServer/splitRegion
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.splitRegion (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 12:  // CoreGameServerIDL/GameServer/getSplitStatus
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.getSplitStatus (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 13:  // CoreGameServerIDL/GameServer/promoteBackup
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.promoteBackup (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 14:  // CoreGameServerIDL/GameServer/getServerMetrics
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String $result = null;
+         $result = this.getServerMetrics (uName, password, ipAddress);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 15:  // CoreGameServerIDL/GameServer/listPlayers
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String cursor = in.read_string ();
+         int pageSize = in.read_long ();
+         String status = in.read_string ();
+         String uNamePrefix = in.read_string ();
+         String $result = null;
+         $result = this.listPlayers (uName, password, ipAddress, cursor, pageSize, status, uNamePrefix);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 16:  // CoreGameServerIDL/GameServer/findPlayers
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String ipSubnet = in.read_string ();
+         String status = in.read_string ();
+         int minAge = in.read_long ();
+         int maxAge = in.read_long ();
+         boolean countOnly = in.read_boolean ();
+         String $result = null;
+         $result = this.findPlayers (uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 17:  // CoreGameServerIDL/GameServer/importPlayers
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String path = in.read_string ();
+         String $result = null;
+         $result = this.importPlayers (uName, password, ipAddress, path);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
+       case 18:  // CoreGameServerIDL/GameServer/exportPlayers
+       {
+         String uName = in.read_string ();
+         String password = in.read_string ();
+         String ipAddress = in.read_string ();
+         String path = in.read_string ();
+         String $result = null;
+         $result = this.exportPlayers (uName, password, ipAddress, path);
+         out = $rh.createReply();
+         out.write_string ($result);
+         break;
+       }
+
        default:
          throw new org.omg.CORBA.BAD_OPERATION (0, org.omg.CORBA.CompletionStatus.COMPLETED_MAYBE);
     }
@@ -167,6 +167,28 @@ public class _GameServerStub extends org.omg.CORBA.portable.ObjectImpl implement
             }
   } // transferAccount
 
+  public String getTransferStatus (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("getTransferStatus", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return getTransferStatus (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // getTransferStatus
+
   public String suspendAccount (String uName, String password, String ipAddress, String uNameToSuspend)
   {
             org.omg.CORBA.portable.InputStream $in = null;
@@ -190,6 +212,242 @@ public class _GameServerStub extends org.omg.CORBA.portable.ObjectImpl implement
             }
   } // suspendAccount
 
+  public String migratePlayers (String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("migratePlayers", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $out.write_string (targetRegion);
+                $out.write_string (uNamePrefix);
+                $out.write_string (ipSubnet);
+                $out.write_boolean (offlineOnly);
+                $out.write_long (batchSize);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return migratePlayers (uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // migratePlayers
+
+  public String getMigrationStatus (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("getMigrationStatus", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return getMigrationStatus (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // getMigrationStatus
+
+  public String splitRegion (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("splitRegion", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return splitRegion (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // splitRegion
+
+  public String getSplitStatus (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("getSplitStatus", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return getSplitStatus (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // getSplitStatus
+
+  public String promoteBackup (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("promoteBackup", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return promoteBackup (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // promoteBackup
+
+  public String getServerMetrics (String uName, String password, String ipAddress)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("getServerMetrics", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return getServerMetrics (uName, password, ipAddress        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // getServerMetrics
+
+  public String listPlayers (String uName, String password, String ipAddress, String cursor, int pageSize, String status, String uNamePrefix)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("listPlayers", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $out.write_string (cursor);
+                $out.write_long (pageSize);
+                $out.write_string (status);
+                $out.write_string (uNamePrefix);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return listPlayers (uName, password, ipAddress, cursor, pageSize, status, uNamePrefix        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // listPlayers
+
+  public String findPlayers (String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("findPlayers", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $out.write_string (ipSubnet);
+                $out.write_string (status);
+                $out.write_long (minAge);
+                $out.write_long (maxAge);
+                $out.write_boolean (countOnly);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return findPlayers (uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // findPlayers
+
+  public String importPlayers (String uName, String password, String ipAddress, String path)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("importPlayers", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $out.write_string (path);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return importPlayers (uName, password, ipAddress, path        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // importPlayers
+
+  public String exportPlayers (String uName, String password, String ipAddress, String path)
+  {
+            org.omg.CORBA.portable.InputStream $in = null;
+            try {
+                org.omg.CORBA.portable.OutputStream $out = _request ("exportPlayers", true);
+                $out.write_string (uName);
+                $out.write_string (password);
+                $out.write_string (ipAddress);
+                $out.write_string (path);
+                $in = _invoke ($out);
+                String $result = $in.read_string ();
+                return $result;
+            } catch (org.omg.CORBA.portable.ApplicationException $ex) {
+                $in = $ex.getInputStream ();
+                String _id = $ex.getId ();
+                throw new org.omg.CORBA.MARSHAL (_id);
+            } catch (org.omg.CORBA.portable.RemarshalException $rm) {
+                return exportPlayers (uName, password, ipAddress, path        );
+            } finally {
+                _releaseReply ($in);
+            }
+  } // exportPlayers
+
   // Type-specific CORBA::Object operations
   private static String[] __ids = {
     "IDL:CoreGameServerIDL/GameServer:1.0"};
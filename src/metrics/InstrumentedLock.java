@@ -0,0 +1,121 @@
+package metrics;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+
+// Reentrant exclusive lock that can record how often it is taken, how long callers wait for it,
+// how long it is held and where the waiting happens. Recording is switched on at startup with
+// -Dgameserver.lockMetrics=true; when off every call goes straight to the wrapped lock.
+public class InstrumentedLock implements Lock, Serializable {
+
+	public static final boolean ENABLED = Boolean.getBoolean("gameserver.lockMetrics");
+
+	private static final long serialVersionUID = 1L;
+	private final WriteLock delegate = new ReentrantReadWriteLock().writeLock();
+	private final String name;
+	private transient LockMetrics metrics;
+	// only written and read by the thread holding the lock
+	private transient long acquiredAt;
+
+	// locks sharing a name, such as every Player lock, share their metrics
+	public InstrumentedLock(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public void lock() {
+		if(!ENABLED) {
+			delegate.lock();
+			return;
+		}
+		if(delegate.tryLock()) {
+			acquired(0, false);
+			return;
+		}
+		long waitStart = System.nanoTime();
+		delegate.lock();
+		acquired(System.nanoTime() - waitStart, true);
+	}
+
+	@Override
+	public void lockInterruptibly() throws InterruptedException {
+		if(!ENABLED) {
+			delegate.lockInterruptibly();
+			return;
+		}
+		if(delegate.tryLock()) {
+			acquired(0, false);
+			return;
+		}
+		long waitStart = System.nanoTime();
+		delegate.lockInterruptibly();
+		acquired(System.nanoTime() - waitStart, true);
+	}
+
+	@Override
+	public boolean tryLock() {
+		boolean locked = delegate.tryLock();
+		if(ENABLED && locked) acquired(0, false);
+		return locked;
+	}
+
+	@Override
+	public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+		if(!ENABLED) return delegate.tryLock(time, unit);
+		if(delegate.tryLock()) {
+			acquired(0, false);
+			return true;
+		}
+		long waitStart = System.nanoTime();
+		boolean locked = delegate.tryLock(time, unit);
+		if(locked) acquired(System.nanoTime() - waitStart, true);
+		return locked;
+	}
+
+	@Override
+	public void unlock() {
+		if(ENABLED && delegate.getHoldCount() == 1) {
+			metrics().recordHold(System.nanoTime() - acquiredAt);
+		}
+		delegate.unlock();
+	}
+
+	@Override
+	public Condition newCondition() {
+		return delegate.newCondition();
+	}
+
+	public boolean isHeldByCurrentThread() {
+		return delegate.isHeldByCurrentThread();
+	}
+
+	private void acquired(long waitNanos, boolean contended) {
+		// reentrant acquisitions neither wait nor start a new hold
+		if(delegate.getHoldCount() > 1) return;
+		acquiredAt = System.nanoTime();
+		metrics().recordAcquisition(waitNanos, contended ? callSite() : null);
+	}
+
+	private LockMetrics metrics() {
+		LockMetrics current = metrics;
+		if(current == null) {
+			current = LockMetrics.forName(name);
+			metrics = current;
+		}
+		return current;
+	}
+
+	// only walked for contended acquisitions, the first frame outside the lock wrappers is the caller
+	private static String callSite() {
+		for(StackTraceElement frame : new Throwable().getStackTrace()) {
+			String className = frame.getClassName();
+			if(className.equals(InstrumentedLock.class.getName()) || className.equals("models.Player")) continue;
+			return String.format("%s.%s:%d", className.substring(className.lastIndexOf('.') + 1), frame.getMethodName(), frame.getLineNumber());
+		}
+		return "unknown";
+	}
+}
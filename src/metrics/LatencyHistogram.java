@@ -0,0 +1,94 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Lock-free log-linear histogram of nanosecond latencies: every power of two is split into
+// 16 linear buckets, so a recorded value is known to within about 6%
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// 2^40 ns is about 18 minutes, anything longer lands in the last bucket
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+	public void record(long nanos) {
+		counts.incrementAndGet(indexOf(nanos));
+		max.accumulate(nanos);
+	}
+
+	static int indexOf(long value) {
+		if(value < SUB_BUCKETS) return (int) Math.max(0, value);
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if(exponent > MAX_EXPONENT) return BUCKETS - 1;
+		int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	static long lowerBoundOf(int index) {
+		if(index < SUB_BUCKETS) return index;
+		int shift = index / SUB_BUCKETS - 1;
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+	}
+
+	// the counts are copied bucket by bucket, recording carries on meanwhile
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		for(int index = 0; index < BUCKETS; index++) {
+			copy[index] = counts.get(index);
+		}
+		return new Snapshot(copy, max.get());
+	}
+
+	public static class Snapshot {
+
+		private final long[] counts;
+		private final long total;
+		private final long max;
+
+		Snapshot(long[] counts, long max) {
+			this.counts = counts;
+			long sum = 0;
+			for(long count : counts) {
+				sum += count;
+			}
+			this.total = sum;
+			this.max = max;
+		}
+
+		// the midpoint of the bucket holding the requested rank, never above the largest value seen
+		public long percentile(double percentile) {
+			if(total == 0) return 0;
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+			long seen = 0;
+			for(int index = 0; index < counts.length; index++) {
+				seen += counts[index];
+				if(seen >= rank) {
+					long lower = lowerBoundOf(index);
+					long upper = index + 1 < counts.length ? lowerBoundOf(index + 1) : max + 1;
+					return Math.min(max, lower + (upper - lower - 1) / 2);
+				}
+			}
+			return max;
+		}
+
+		public Snapshot merge(Snapshot other) {
+			long[] merged = new long[counts.length];
+			for(int index = 0; index < counts.length; index++) {
+				merged[index] = counts[index] + other.counts[index];
+			}
+			return new Snapshot(merged, Math.max(max, other.max));
+		}
+
+		public long getTotal() {
+			return total;
+		}
+		public long getMax() {
+			return max;
+		}
+	}
+}
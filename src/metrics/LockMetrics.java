@@ -0,0 +1,68 @@
+package metrics;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Acquisitions, wait and hold times, and contended call sites of every InstrumentedLock with one name
+public class LockMetrics {
+
+	private static final int TOP_CALL_SITES = 5;
+	private static final ConcurrentHashMap<String, LockMetrics> LOCKS = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final LongAdder acquisitions = new LongAdder();
+	private final LongAdder contended = new LongAdder();
+	private final LatencyHistogram waits = new LatencyHistogram();
+	private final LatencyHistogram holds = new LatencyHistogram();
+	// per call site: contended acquisitions and the nanoseconds spent waiting there
+	private final ConcurrentHashMap<String, LongAdder[]> callSites = new ConcurrentHashMap<>();
+
+	private LockMetrics(String name) {
+		this.name = name;
+	}
+
+	public static LockMetrics forName(String name) {
+		return LOCKS.computeIfAbsent(name, LockMetrics::new);
+	}
+
+	void recordAcquisition(long waitNanos, String callSite) {
+		acquisitions.increment();
+		waits.record(waitNanos);
+		if(callSite != null) {
+			contended.increment();
+			LongAdder[] site = callSites.computeIfAbsent(callSite, key -> new LongAdder[] { new LongAdder(), new LongAdder() });
+			site[0].increment();
+			site[1].add(waitNanos);
+		}
+	}
+
+	void recordHold(long holdNanos) {
+		holds.record(holdNanos);
+	}
+
+	public String describe() {
+		LatencyHistogram.Snapshot waitSnapshot = waits.snapshot();
+		LatencyHistogram.Snapshot holdSnapshot = holds.snapshot();
+		long total = acquisitions.sum();
+		String sites = callSites.entrySet().stream()
+				.sorted(Comparator.comparingLong(site -> -site.getValue()[1].sum()))
+				.limit(TOP_CALL_SITES)
+				.map(site -> String.format("%s (%d waits, %.3f ms)", site.getKey(), site.getValue()[0].sum(), OperationMetrics.toMillis(site.getValue()[1].sum())))
+				.collect(Collectors.joining(", "));
+		return String.format("lock %s -- acquisitions: %d, contended: %d (%.1f%%), wait p50: %.3f ms, p99: %.3f ms, max: %.3f ms, hold p50: %.3f ms, p99: %.3f ms, max: %.3f ms%s",
+				name, total, contended.sum(), total == 0 ? 0 : 100.0 * contended.sum() / total,
+				OperationMetrics.toMillis(waitSnapshot.percentile(50)), OperationMetrics.toMillis(waitSnapshot.percentile(99)), OperationMetrics.toMillis(waitSnapshot.getMax()),
+				OperationMetrics.toMillis(holdSnapshot.percentile(50)), OperationMetrics.toMillis(holdSnapshot.percentile(99)), OperationMetrics.toMillis(holdSnapshot.getMax()),
+				sites.isEmpty() ? "" : " -- most waited at: " + sites);
+	}
+
+	public static String describeAll(String label) {
+		if(!InstrumentedLock.ENABLED) return String.format("%s: lock metrics are off, start the server with -Dgameserver.lockMetrics=true", label);
+		return LOCKS.values().stream()
+				.sorted(Comparator.comparing(lock -> lock.name))
+				.map(lock -> String.format("%s: %s", label, lock.describe()))
+				.collect(Collectors.joining("\n"));
+	}
+}
@@ -0,0 +1,49 @@
+package metrics;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Operation and peer metrics of one servant, created on first use
+public class MetricsRegistry {
+
+	private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, PeerMetrics> peers = new ConcurrentHashMap<>();
+	private final long startedAt = System.currentTimeMillis();
+
+	public OperationMetrics operation(String name) {
+		OperationMetrics metrics = operations.get(name);
+		return metrics != null ? metrics : operations.computeIfAbsent(name, OperationMetrics::new);
+	}
+
+	public PeerMetrics peer(String name) {
+		PeerMetrics metrics = peers.get(name);
+		return metrics != null ? metrics : peers.computeIfAbsent(name, PeerMetrics::new);
+	}
+
+	public String describe(String label) {
+		String header = String.format("%s: metrics over %d s", label, (System.currentTimeMillis() - startedAt) / 1000);
+		if(operations.values().stream().allMatch(metrics -> metrics.getCalls() == 0)) return header + " -- no calls yet";
+		return header + "\n" + operations.values().stream()
+				.filter(metrics -> metrics.getCalls() > 0)
+				.sorted(Comparator.comparing(OperationMetrics::getName))
+				.map(metrics -> String.format("%s: %s", label, metrics.describe()))
+				.collect(Collectors.joining("\n"));
+	}
+
+	public String describePeers(String label) {
+		if(peers.isEmpty()) return String.format("%s: no requests sent to peers yet", label);
+		return peers.values().stream()
+				.sorted(Comparator.comparing(PeerMetrics::getPeer))
+				.map(metrics -> String.format("%s: %s", label, metrics.describe()))
+				.collect(Collectors.joining("\n"));
+	}
+
+	// summarizing resets the per-interval counts, so only the periodic log summary should call this
+	public String summarizePeers(String label) {
+		return peers.values().stream()
+				.sorted(Comparator.comparing(PeerMetrics::getPeer))
+				.map(metrics -> String.format("%s: %s", label, metrics.summarize()))
+				.collect(Collectors.joining("\n"));
+	}
+}
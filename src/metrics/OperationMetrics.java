@@ -0,0 +1,53 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latencies of one servant operation. A call is rejected when the servant answered
+// with an error message, and failed when it threw.
+public class OperationMetrics {
+
+	private final String name;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	public OperationMetrics(String name) {
+		this.name = name;
+	}
+
+	public void record(long nanos, boolean accepted) {
+		calls.increment();
+		if(!accepted) rejected.increment();
+		latencies.record(nanos);
+	}
+
+	public void recordFailure(long nanos) {
+		calls.increment();
+		failed.increment();
+		latencies.record(nanos);
+	}
+
+	public String describe() {
+		LatencyHistogram.Snapshot snapshot = latencies.snapshot();
+		return String.format("%s -- calls: %d, rejected: %d, failed: %d, p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, p99.9: %.3f ms, max: %.3f ms",
+				name, calls.sum(), rejected.sum(), failed.sum(),
+				toMillis(snapshot.percentile(50)), toMillis(snapshot.percentile(90)), toMillis(snapshot.percentile(99)), 
+				toMillis(snapshot.percentile(99.9)), toMillis(snapshot.getMax()));
+	}
+
+	public static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public String getName() {
+		return name;
+	}
+	public long getCalls() {
+		return calls.sum();
+	}
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+}
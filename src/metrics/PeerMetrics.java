@@ -0,0 +1,128 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Round trips, timeouts and errors of the UDP requests one servant sends to one peer.
+// A peer is flagged as degraded when more than DEGRADED_FAILURE_PERCENT of its requests
+// since the previous summary timed out or failed.
+public class PeerMetrics {
+
+	private static final double DEGRADED_FAILURE_PERCENT = 5.0;
+	// timeouts follow the round trips of the last one to two windows, and wait for the ceiling until enough are known;
+	// the windows also rotate when read, so a peer that has only timed out lately is not timed by old round trips
+	private static final long RECENT_WINDOW_IN_MILLIS = 30000;
+	private static final int MIN_RECENT_SAMPLES = 10;
+	private static final int COLD_HEDGE_DELAY_IN_MILLIS = 100;
+	private static final int TIMEOUT_RTT_MULTIPLIER = 4;
+	private static final double HEDGE_PERCENTILE = 95;
+	private static final int MAX_BACKOFF_SHIFT = 10;
+
+	private final String peer;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LatencyHistogram roundTrips = new LatencyHistogram();
+	private final AtomicLong lastSuccessAt = new AtomicLong();
+	// timeouts in a row double the next timeout, a success resets them
+	private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+	private volatile LatencyHistogram recentRoundTrips = new LatencyHistogram();
+	private volatile LatencyHistogram previousRoundTrips = new LatencyHistogram();
+	private volatile long recentSince = System.currentTimeMillis();
+	// totals at the previous summary, only touched by the summarizing thread
+	private long summarizedRequests, summarizedTimeouts, summarizedErrors;
+
+	public PeerMetrics(String peer) {
+		this.peer = peer;
+	}
+
+	public void recordSuccess(long nanos) {
+		requests.increment();
+		roundTrips.record(nanos);
+		long now = System.currentTimeMillis();
+		if(now - recentSince > RECENT_WINDOW_IN_MILLIS) rotateRecent(now);
+		recentRoundTrips.record(nanos);
+		lastSuccessAt.set(now);
+		consecutiveTimeouts.set(0);
+	}
+
+	public void recordTimeout() {
+		requests.increment();
+		timeouts.increment();
+		consecutiveTimeouts.incrementAndGet();
+	}
+
+	public void recordError() {
+		requests.increment();
+		errors.increment();
+	}
+
+	public void recordHedge() {
+		hedges.increment();
+	}
+
+	private synchronized void rotateRecent(long now) {
+		if(now - recentSince <= RECENT_WINDOW_IN_MILLIS) return;
+		// the recent window's round trips all fall within a window of its start, so after two they are too old as well
+		previousRoundTrips = now - recentSince > 2 * RECENT_WINDOW_IN_MILLIS ? new LatencyHistogram() : recentRoundTrips;
+		recentRoundTrips = new LatencyHistogram();
+		recentSince = now;
+	}
+
+	private LatencyHistogram.Snapshot recentSnapshot() {
+		long now = System.currentTimeMillis();
+		if(now - recentSince > RECENT_WINDOW_IN_MILLIS) rotateRecent(now);
+		return recentRoundTrips.snapshot().merge(previousRoundTrips.snapshot());
+	}
+
+	// a multiple of the recent p99 round trip, doubled for every timeout in a row, within floor and ceiling
+	public int timeoutInMillis(int floorInMillis, int ceilingInMillis) {
+		LatencyHistogram.Snapshot recent = recentSnapshot();
+		if(recent.getTotal() < MIN_RECENT_SAMPLES) return ceilingInMillis;
+		long timeout = Math.max(floorInMillis, toMillisRoundedUp(recent.percentile(99)) * TIMEOUT_RTT_MULTIPLIER);
+		timeout <<= Math.min(consecutiveTimeouts.get(), MAX_BACKOFF_SHIFT);
+		return (int) Math.min(ceilingInMillis, timeout);
+	}
+
+	// how long to wait for a reply before re-sending an idempotent request: the recent p95 round trip,
+	// or a cautious guess while there are too few round trips to go by
+	public int hedgeDelayInMillis(int floorInMillis, int timeoutInMillis, int maxHedges) {
+		LatencyHistogram.Snapshot recent = recentSnapshot();
+		if(recent.getTotal() < MIN_RECENT_SAMPLES) return Math.max(floorInMillis, Math.min(COLD_HEDGE_DELAY_IN_MILLIS, timeoutInMillis / (maxHedges + 1)));
+		long delay = Math.max(floorInMillis, toMillisRoundedUp(recent.percentile(HEDGE_PERCENTILE)));
+		return (int) Math.min(timeoutInMillis, delay);
+	}
+
+	private static long toMillisRoundedUp(long nanos) {
+		return (nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public String describe() {
+		LatencyHistogram.Snapshot snapshot = roundTrips.snapshot();
+		long lastSuccess = lastSuccessAt.get();
+		return String.format("peer %s -- requests: %d, timeouts: %d, errors: %d, hedged: %d, rtt p50: %.3f ms, p99: %.3f ms, max: %.3f ms, last success: %s",
+				peer, requests.sum(), timeouts.sum(), errors.sum(), hedges.sum(),
+				OperationMetrics.toMillis(snapshot.percentile(50)), OperationMetrics.toMillis(snapshot.percentile(99)), OperationMetrics.toMillis(snapshot.getMax()),
+				lastSuccess == 0 ? "never" : String.format("%d ms ago", System.currentTimeMillis() - lastSuccess));
+	}
+
+	// describes the peer along with what changed since the previous summary
+	public String summarize() {
+		long totalRequests = requests.sum(), totalTimeouts = timeouts.sum(), totalErrors = errors.sum();
+		long intervalRequests = totalRequests - summarizedRequests;
+		long intervalFailures = (totalTimeouts - summarizedTimeouts) + (totalErrors - summarizedErrors);
+		summarizedRequests = totalRequests;
+		summarizedTimeouts = totalTimeouts;
+		summarizedErrors = totalErrors;
+		boolean degraded = intervalRequests > 0 && 100.0 * intervalFailures / intervalRequests > DEGRADED_FAILURE_PERCENT;
+		return String.format("%s%s -- since last summary: %d requests, %d timed out or failed", 
+				degraded ? "DEGRADED " : "", describe(), intervalRequests, intervalFailures);
+	}
+
+	public String getPeer() {
+		return peer;
+	}
+}
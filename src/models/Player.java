@@ -1,11 +1,10 @@
 package models;
 
 import java.io.Serializable;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
 import exceptions.BadPasswordException;
 import exceptions.BadUserNameException;
+import metrics.InstrumentedLock;
 
 public class Player implements Serializable {
 
@@ -13,7 +12,7 @@ public class Player implements Serializable {
 	private String fName, lName, uName, password, ipAddress;
 	private boolean status;
 	private int age;
-	private final WriteLock lock = new ReentrantReadWriteLock().writeLock();
+	private final InstrumentedLock lock = new InstrumentedLock("Player");
 	
 	public Player(String fName, String lName, String uName, String password, String ipAddress, int age) throws BadUserNameException, BadPasswordException {
 		this.setfName(fName);
@@ -24,7 +23,18 @@ public class Player implements Serializable {
 		this.setAge(age);
 		this.setStatus(false);
 	}
-	
+
+	// a copy with its own lock, for a servant in the same JVM that stores the player
+	public Player(Player other) {
+		this.fName = other.fName;
+		this.lName = other.lName;
+		this.uName = other.uName;
+		this.password = other.password;
+		this.ipAddress = other.ipAddress;
+		this.age = other.age;
+		this.status = other.status;
+	}
+
 	public String getfName() {
 		return fName;
 	}
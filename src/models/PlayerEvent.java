@@ -0,0 +1,64 @@
+package models;
+
+// A change to a player's state as published to event subscribers, numbered in the order the servant made it
+public class PlayerEvent {
+
+	public enum Type { CREATED, SIGNED_IN, SIGNED_OUT, TRANSFERRED_OUT, TRANSFERRED_IN, SUSPENDED }
+
+	private final long sequence;
+	private final long timestamp;
+	private final Type type;
+	private final String uName;
+	private final String ipAddress;
+	private final String detail;
+
+	public PlayerEvent(long sequence, long timestamp, Type type, String uName, String ipAddress, String detail) {
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.type = type;
+		this.uName = uName;
+		this.ipAddress = ipAddress;
+		this.detail = detail;
+	}
+
+	// sequence, time, type, username, IP address and detail, tab separated; the fields clients supply have
+	// backslashes, tabs and line breaks escaped as \\, \t, \n and \r so they cannot break the framing
+	public String toLine() {
+		return String.format("%d\t%d\t%s\t%s\t%s\t%s", sequence, timestamp, type, escape(uName), escape(ipAddress), escape(detail));
+	}
+
+	private static String escape(String field) {
+		if(field == null) return null;
+		StringBuilder escaped = null;
+		for(int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			String replacement = c == '\\' ? "\\\\" : c == '\t' ? "\\t" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : null;
+			if(replacement == null) {
+				if(escaped != null) escaped.append(c);
+				continue;
+			}
+			if(escaped == null) escaped = new StringBuilder(field.length() + 8).append(field, 0, i);
+			escaped.append(replacement);
+		}
+		return escaped == null ? field : escaped.toString();
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+	public long getTimestamp() {
+		return timestamp;
+	}
+	public Type getType() {
+		return type;
+	}
+	public String getuName() {
+		return uName;
+	}
+	public String getIpAddress() {
+		return ipAddress;
+	}
+	public String getDetail() {
+		return detail;
+	}
+}
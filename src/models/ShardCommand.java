@@ -0,0 +1,30 @@
+package models;
+
+import java.io.Serializable;
+
+// Control message a region's first shard sends to the other servants while splitting the region
+public class ShardCommand implements Serializable {
+
+	public enum Operation { PREPARE, COPY, CUT_OVER, ABORT, ACTIVATE, RESIZE }
+
+	private static final long serialVersionUID = 1L;
+	private final Operation operation;
+	private final String regionId;
+	private final int shardCount;
+
+	public ShardCommand(Operation operation, String regionId, int shardCount) {
+		this.operation = operation;
+		this.regionId = regionId;
+		this.shardCount = shardCount;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+	public String getRegionId() {
+		return regionId;
+	}
+	public int getShardCount() {
+		return shardCount;
+	}
+}
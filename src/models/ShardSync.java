@@ -0,0 +1,40 @@
+package models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+// Latest state of some moving usernames, streamed from a shard to the servant taking them over
+public class ShardSync implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private final String sourceShard;
+	private final ArrayList<Player> players;
+	private final ArrayList<String> removedUsernames;
+	private final int sourceIndex;
+	private final boolean handover;
+
+	// handover marks the last sync of a cut-over, after which the source no longer serves the slice
+	public ShardSync(String sourceShard, int sourceIndex, ArrayList<Player> players, ArrayList<String> removedUsernames, boolean handover) {
+		this.sourceShard = sourceShard;
+		this.sourceIndex = sourceIndex;
+		this.players = players;
+		this.removedUsernames = removedUsernames;
+		this.handover = handover;
+	}
+
+	public String getSourceShard() {
+		return sourceShard;
+	}
+	public int getSourceIndex() {
+		return sourceIndex;
+	}
+	public boolean isHandover() {
+		return handover;
+	}
+	public ArrayList<Player> getPlayers() {
+		return players;
+	}
+	public ArrayList<String> getRemovedUsernames() {
+		return removedUsernames;
+	}
+}
@@ -0,0 +1,34 @@
+package models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+// Several player accounts shipped to another region in a single datagram
+public class TransferBatch implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private final String sourceRegion;
+	private final long batchId;
+	private final boolean atomic;
+	private final ArrayList<Player> players;
+
+	public TransferBatch(String sourceRegion, long batchId, boolean atomic, ArrayList<Player> players) {
+		this.sourceRegion = sourceRegion;
+		this.batchId = batchId;
+		this.atomic = atomic;
+		this.players = players;
+	}
+
+	public String getSourceRegion() {
+		return sourceRegion;
+	}
+	public long getBatchId() {
+		return batchId;
+	}
+	public boolean isAtomic() {
+		return atomic;
+	}
+	public ArrayList<Player> getPlayers() {
+		return players;
+	}
+}
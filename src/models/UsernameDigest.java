@@ -0,0 +1,81 @@
+package models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+// A shard's username filter as replicated to the shards of other regions: a SNAPSHOT arrives as chunks of
+// the filter's words, a DELTA carries the names added since the previous sequence number of the same generation,
+// and a CONFIRM asks the shard whether it really stores a name its digest may contain
+public class UsernameDigest implements Serializable {
+
+	public enum Kind { SNAPSHOT, DELTA, CONFIRM }
+
+	private static final long serialVersionUID = 1L;
+	private final Kind kind;
+	private final String sourceShard;
+	private final long generation;
+	private final long sequence;
+	private final ArrayList<String> usernames;
+	private final int bitCount, hashCount, totalWords, wordOffset;
+	private final long[] words;
+
+	private UsernameDigest(Kind kind, String sourceShard, long generation, long sequence, ArrayList<String> usernames,
+			int bitCount, int hashCount, int totalWords, int wordOffset, long[] words) {
+		this.kind = kind;
+		this.sourceShard = sourceShard;
+		this.generation = generation;
+		this.sequence = sequence;
+		this.usernames = usernames;
+		this.bitCount = bitCount;
+		this.hashCount = hashCount;
+		this.totalWords = totalWords;
+		this.wordOffset = wordOffset;
+		this.words = words;
+	}
+
+	public static UsernameDigest snapshotChunk(String sourceShard, long generation, long sequence, int bitCount, int hashCount,
+			int totalWords, int wordOffset, long[] words) {
+		return new UsernameDigest(Kind.SNAPSHOT, sourceShard, generation, sequence, null, bitCount, hashCount, totalWords, wordOffset, words);
+	}
+
+	public static UsernameDigest delta(String sourceShard, long generation, long sequence, ArrayList<String> usernames) {
+		return new UsernameDigest(Kind.DELTA, sourceShard, generation, sequence, usernames, 0, 0, 0, 0, null);
+	}
+
+	public static UsernameDigest confirm(String sourceShard, String uName) {
+		ArrayList<String> usernames = new ArrayList<>();
+		usernames.add(uName);
+		return new UsernameDigest(Kind.CONFIRM, sourceShard, 0, 0, usernames, 0, 0, 0, 0, null);
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+	public String getSourceShard() {
+		return sourceShard;
+	}
+	public long getGeneration() {
+		return generation;
+	}
+	public long getSequence() {
+		return sequence;
+	}
+	public ArrayList<String> getUsernames() {
+		return usernames;
+	}
+	public int getBitCount() {
+		return bitCount;
+	}
+	public int getHashCount() {
+		return hashCount;
+	}
+	public int getTotalWords() {
+		return totalWords;
+	}
+	public int getWordOffset() {
+		return wordOffset;
+	}
+	public long[] getWords() {
+		return words;
+	}
+}
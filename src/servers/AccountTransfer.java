@@ -0,0 +1,76 @@
+package servers;
+
+// State of a single account transfer: PENDING -> COMMITTED | ROLLED_BACK
+public class AccountTransfer {
+
+	public enum State { PENDING, COMMITTED, ROLLED_BACK }
+
+	private final long transferId;
+	private final String uName, password, oldIpAddress, newIpAddress;
+	private final boolean wasOnline;
+	private volatile State state = State.PENDING;
+	private volatile String outcome;
+	private volatile long resolvedAt;
+
+	public AccountTransfer(long transferId, String uName, String password, String oldIpAddress, String newIpAddress, boolean wasOnline) {
+		this.transferId = transferId;
+		this.uName = uName;
+		this.password = password;
+		this.oldIpAddress = oldIpAddress;
+		this.newIpAddress = newIpAddress;
+		this.wasOnline = wasOnline;
+		this.outcome = String.format("Initiated TRANSFER ACCOUNT for player with username %s to %s", uName, newIpAddress);
+	}
+
+	public synchronized boolean commit(String outcome) {
+		return resolve(State.COMMITTED, outcome);
+	}
+
+	public synchronized boolean rollBack(String outcome) {
+		return resolve(State.ROLLED_BACK, outcome);
+	}
+
+	private boolean resolve(State finalState, String outcome) {
+		if(this.state != State.PENDING) return false;
+		this.state = finalState;
+		this.outcome = outcome;
+		this.resolvedAt = System.currentTimeMillis();
+		return true;
+	}
+
+	public synchronized String describe() {
+		return String.format("Transfer #%d is %s -- %s", transferId, state, outcome);
+	}
+
+	public long getTransferId() {
+		return transferId;
+	}
+	public String getuName() {
+		return uName;
+	}
+	public String getPassword() {
+		return password;
+	}
+	public String getOldIpAddress() {
+		return oldIpAddress;
+	}
+	public String getNewIpAddress() {
+		return newIpAddress;
+	}
+	public boolean getWasOnline() {
+		return wasOnline;
+	}
+	public State getState() {
+		return state;
+	}
+	public boolean isPending() {
+		return state == State.PENDING;
+	}
+	public String getOutcome() {
+		return outcome;
+	}
+	// resolved before the given epoch milliseconds, kept until then for getTransferStatus
+	public boolean resolvedBefore(long millis) {
+		return state != State.PENDING && resolvedAt < millis;
+	}
+}
@@ -0,0 +1,176 @@
+package servers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Binary audit log of the requests a servant answers, an alternative to its text log (-Dgameserver.log=binary,
+// or both). After MAGIC the file holds fixed 24 byte records: epoch nanoseconds (long), operation code (short),
+// result code (byte), a spare byte, username id, IP address id and duration in microseconds (ints).
+// A username or address gets its id the first time it is seen, from a DEFINE record whose id and length
+// fields are followed by its UTF-8 bytes padded to 8; a SESSION record starts every run, and ids start over.
+// Another SESSION record starts over once MAX_INTERNED names and addresses are held, so client input cannot
+// grow the map for the life of the process.
+// Records go into one preallocated buffer, so recording a known user allocates nothing, and the buffer is
+// written out when full and every second, which is also how much a crash can lose.
+public class AuditLog {
+
+	public static final int MAGIC = 0x47534131; // GSA1
+	public static final int RECORD_SIZE = 24;
+	public static final short DEFINE = -1;
+	public static final short SESSION = -2;
+	public static final int MAX_STRING_BYTES = 256;
+	private static final int MAX_INTERNED = 100000;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	public enum Operation {
+		CREATE_PLAYER_ACCOUNT(1, "createPlayerAccount"), PLAYER_SIGN_IN(2, "playerSignIn"), PLAYER_SIGN_OUT(3, "playerSignOut"),
+		ADMIN_SIGN_IN(4, "adminSignIn"), ADMIN_SIGN_OUT(5, "adminSignOut"), GET_PLAYER_STATUS(6, "getPlayerStatus"),
+		TRANSFER_ACCOUNT(7, "transferAccount"), GET_TRANSFER_STATUS(8, "getTransferStatus"), SUSPEND_ACCOUNT(9, "suspendAccount"),
+		MIGRATE_PLAYERS(10, "migratePlayers"), GET_MIGRATION_STATUS(11, "getMigrationStatus"), SPLIT_REGION(12, "splitRegion"),
+		GET_SPLIT_STATUS(13, "getSplitStatus"), PROMOTE_BACKUP(14, "promoteBackup"), GET_SERVER_METRICS(15, "getServerMetrics"),
+		LIST_PLAYERS(16, "listPlayers"), FIND_PLAYERS(17, "findPlayers"), IMPORT_PLAYERS(18, "importPlayers"),
+		EXPORT_PLAYERS(19, "exportPlayers");
+
+		private static final Map<String, Operation> BY_NAME = new HashMap<>();
+		private static final Map<Short, Operation> BY_CODE = new HashMap<>();
+		static {
+			for(Operation operation : values()) {
+				BY_NAME.put(operation.name, operation);
+				BY_CODE.put(operation.code, operation);
+			}
+		}
+
+		private final short code;
+		private final String name;
+
+		Operation(int code, String name) {
+			this.code = (short) code;
+			this.name = name;
+		}
+
+		public short getCode() {
+			return code;
+		}
+		public String getName() {
+			return name;
+		}
+
+		// null for an operation this log does not know
+		public static Operation forName(String name) {
+			return BY_NAME.get(name);
+		}
+		public static Operation forCode(short code) {
+			return BY_CODE.get(code);
+		}
+	}
+
+	public enum Result {
+		OK, REJECTED, BUSY, RATE_LIMITED, FAILED;
+
+		public static Result forCode(int code) {
+			return code >= 0 && code < values().length ? values()[code] : null;
+		}
+	}
+
+	private final String label;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final Map<String, Integer> ids = new HashMap<>(); // guarded by this
+	private int nextId = 1; // guarded by this
+	private final long epochNanosAtZero = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+	private boolean failed; // guarded by this
+	private int sessions; // guarded by this
+
+	public AuditLog(String label) throws IOException {
+		this.label = label;
+		File file = new File(String.format("server_logs/%s-audit.bin", label));
+		file.getParentFile().mkdirs();
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		synchronized(this) {
+			if(channel.size() == 0) buffer.putInt(MAGIC);
+			startSession();
+			flush();
+		}
+	}
+
+	public void record(String operation, Result result, String uName, String ipAddress, long durationNanos) {
+		Operation known = Operation.forName(operation);
+		if(known == null) return;
+		int durationMicros = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+		synchronized(this) {
+			// both ids have to come from the same session
+			if(ids.size() + 2 > MAX_INTERNED) startSession();
+			int uNameId = idOf(uName);
+			int ipAddressId = idOf(ipAddress);
+			putRecord(known.getCode(), (byte) result.ordinal(), uNameId, ipAddressId, durationMicros);
+		}
+	}
+
+	// guarded by this
+	private void startSession() {
+		putRecord(SESSION, (byte) 0, 0, 0, 0);
+		ids.clear();
+		nextId = 1;
+		sessions++;
+	}
+
+	// guarded by this
+	private int idOf(String value) {
+		if(value == null) return 0;
+		Integer id = ids.get(value);
+		if(id != null) return id;
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, MAX_STRING_BYTES);
+		int newId = nextId++;
+		putRecord(DEFINE, (byte) 0, newId, length, 0);
+		int padded = (length + 7) & ~7;
+		ensureSpace(padded);
+		buffer.put(bytes, 0, length);
+		for(int i = length; i < padded; i++) buffer.put((byte) 0);
+		ids.put(value, newId);
+		return newId;
+	}
+
+	// guarded by this
+	private void putRecord(short code, byte result, int first, int second, int third) {
+		ensureSpace(RECORD_SIZE);
+		buffer.putLong(epochNanosAtZero + System.nanoTime());
+		buffer.putShort(code);
+		buffer.put(result);
+		buffer.put((byte) 0);
+		buffer.putInt(first);
+		buffer.putInt(second);
+		buffer.putInt(third);
+	}
+
+	// guarded by this
+	private void ensureSpace(int bytes) {
+		if(buffer.remaining() < bytes) flush();
+	}
+
+	public synchronized void flush() {
+		buffer.flip();
+		try {
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch(IOException e) {
+			// dropped with the buffer; reported once rather than on every flush
+			if(!failed) System.err.println(String.format("%s: audit log write failed -- %s", label, e.getMessage()));
+			failed = true;
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	public synchronized String describe() {
+		return String.format("binary audit log -- %d names and addresses interned, %d sessions%s", ids.size(), sessions, failed ? ", writes failing" : "");
+	}
+}
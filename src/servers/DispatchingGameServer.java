@@ -0,0 +1,116 @@
+package servers;
+
+import corbautils.GameServerOperations;
+
+// Hands every GameServer operation to the dispatcher's bounded pool, except the metrics request,
+// which runs on the ORB's thread so that an overloaded server can still be inspected
+public class DispatchingGameServer implements GameServerOperations {
+
+	private final GameServerOperations gameServer;
+	private final ServantDispatcher dispatcher;
+	private final String serverLabel;
+
+	public DispatchingGameServer(GameServerOperations gameServer, ServantDispatcher dispatcher, String serverLabel) {
+		this.gameServer = gameServer;
+		this.dispatcher = dispatcher;
+		this.serverLabel = serverLabel;
+	}
+
+	@Override
+	public String createPlayerAccount(String fName, String lName, String uName, String password, String ipAddress, int age) {
+		return dispatcher.dispatch("createPlayerAccount", () -> gameServer.createPlayerAccount(fName, lName, uName, password, ipAddress, age));
+	}
+
+	@Override
+	public String playerSignIn(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("playerSignIn", () -> gameServer.playerSignIn(uName, password, ipAddress));
+	}
+
+	@Override
+	public String playerSignOut(String uName, String ipAddress) {
+		return dispatcher.dispatch("playerSignOut", () -> gameServer.playerSignOut(uName, ipAddress));
+	}
+
+	@Override
+	public String adminSignIn(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("adminSignIn", () -> gameServer.adminSignIn(uName, password, ipAddress));
+	}
+
+	@Override
+	public String adminSignOut(String uName, String ipAddress) {
+		return dispatcher.dispatch("adminSignOut", () -> gameServer.adminSignOut(uName, ipAddress));
+	}
+
+	@Override
+	public String getPlayerStatus(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("getPlayerStatus", () -> gameServer.getPlayerStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String transferAccount(String uName, String password, String oldIpAddress, String newIpAddress) {
+		return dispatcher.dispatch("transferAccount", () -> gameServer.transferAccount(uName, password, oldIpAddress, newIpAddress));
+	}
+
+	@Override
+	public String getTransferStatus(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("getTransferStatus", () -> gameServer.getTransferStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String suspendAccount(String uName, String password, String ipAddress, String uNameToSuspend) {
+		return dispatcher.dispatch("suspendAccount", () -> gameServer.suspendAccount(uName, password, ipAddress, uNameToSuspend));
+	}
+
+	@Override
+	public String migratePlayers(String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize) {
+		return dispatcher.dispatch("migratePlayers",
+				() -> gameServer.migratePlayers(uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize));
+	}
+
+	@Override
+	public String getMigrationStatus(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("getMigrationStatus", () -> gameServer.getMigrationStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String splitRegion(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("splitRegion", () -> gameServer.splitRegion(uName, password, ipAddress));
+	}
+
+	@Override
+	public String getSplitStatus(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("getSplitStatus", () -> gameServer.getSplitStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String promoteBackup(String uName, String password, String ipAddress) {
+		return dispatcher.dispatch("promoteBackup", () -> gameServer.promoteBackup(uName, password, ipAddress));
+	}
+
+	@Override
+	public String getServerMetrics(String uName, String password, String ipAddress) {
+		String reply = gameServer.getServerMetrics(uName, password, ipAddress);
+		if(reply.startsWith("Admin with that password")) return reply;
+		return reply + "\n" + String.format("%s: %s", serverLabel, dispatcher.describe());
+	}
+
+	@Override
+	public String listPlayers(String uName, String password, String ipAddress, String cursor, int pageSize, String status, String uNamePrefix) {
+		return dispatcher.dispatch("listPlayers", () -> gameServer.listPlayers(uName, password, ipAddress, cursor, pageSize, status, uNamePrefix));
+	}
+
+	@Override
+	public String findPlayers(String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly) {
+		return dispatcher.dispatch("findPlayers", () -> gameServer.findPlayers(uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly));
+	}
+
+	@Override
+	public String importPlayers(String uName, String password, String ipAddress, String path) {
+		return dispatcher.dispatch("importPlayers", () -> gameServer.importPlayers(uName, password, ipAddress, path));
+	}
+
+	@Override
+	public String exportPlayers(String uName, String password, String ipAddress, String path) {
+		return dispatcher.dispatch("exportPlayers", () -> gameServer.exportPlayers(uName, password, ipAddress, path));
+	}
+}
@@ -0,0 +1,112 @@
+package servers;
+
+import java.util.Arrays;
+
+import org.omg.CORBA.ORB;
+import org.omg.CosNaming.NamingContextExt;
+import org.omg.CosNaming.NamingContextExtHelper;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+
+import corbautils.GameServer;
+import corbautils.GameServerHelper;
+import topology.Shard;
+import topology.Topology;
+
+// Starts one shard of any region in the topology: GameServerLauncher <region> [shard] [--backup] [ORB args]
+// A shard index past the region's configured count starts a standby servant for an online split,
+// --backup starts a read-only follower of the shard's primary, named GameServer<region>-<n>-backup until promoted
+public class GameServerLauncher {
+
+	public static void main(String[] args) {
+		if(args.length == 0) {
+			System.err.println("Usage: GameServerLauncher <region> [shard] [ORB args] -- regions: " + Topology.getDefault().getRegionIds());
+			return;
+		}
+		boolean backup = Arrays.asList(args).contains("--backup");
+		args = Arrays.stream(args).filter(arg -> !arg.equals("--backup")).toArray(String[]::new);
+		boolean hasShard = args.length > 1 && args[1].matches("\\d+");
+		int shardIndex = hasShard ? Integer.parseInt(args[1]) : 0;
+		launch(args[0], shardIndex, backup, Arrays.copyOfRange(args, hasShard ? 2 : 1, args.length));
+	}
+
+	public static void launch(String location, String[] args) {
+		launch(location, 0, args);
+	}
+
+	public static void launch(String location, int shardIndex, String[] args) {
+		launch(location, shardIndex, false, args);
+	}
+
+	public static void launch(String location, int shardIndex, boolean backup, String[] args) {
+		try{
+		      ORB orb = initORB(args);
+		      start(orb, location, shardIndex, backup, Topology.getDefault());
+		      orb.run();
+	 
+		} catch (Exception e) {
+		    System.err.println("ERROR: " + e);
+		    e.printStackTrace(System.out);
+		}
+	}
+
+	static ORB initORB(String[] args) throws Exception {
+		final String[] defaultORBArgs = { "-ORBInitialPort", "1050" };
+		args = args.length == 0 ? defaultORBArgs : args;
+		ORB orb = ORB.init(args, null);
+
+		POA rootpoa = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+		rootpoa.the_POAManager().activate();
+		return orb;
+	}
+
+	// creates a servant on an initialized ORB and names it, without running the ORB
+	static GameServerServant start(ORB orb, String location, int shardIndex, boolean backup, Topology topology) throws Exception {
+	      POA rootpoa = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+	      GameServerServant gameServer = new GameServerServant(location, shardIndex, backup, topology);
+	      gameServer.setORB(orb); 
+
+	      // the ORB's threads only wait on the dispatcher, which bounds and sheds the servant's work
+	      ServantDispatcher dispatcher = new ServantDispatcher(gameServer.getServerLabel());
+	      DispatchingGameServer dispatchingServer = new DispatchingGameServer(gameServer, dispatcher, gameServer.getServerLabel());
+	      org.omg.CORBA.Object ref = rootpoa.servant_to_reference(new InstrumentedGameServer(dispatchingServer, gameServer.getMetrics(), gameServer.getAuditLog()));
+	      GameServer href = GameServerHelper.narrow(ref);
+	          
+	      // get the root naming context
+	      org.omg.CORBA.Object objRef =
+	          orb.resolve_initial_references("NameService");
+	      NamingContextExt ncRef = NamingContextExtHelper.narrow(objRef);
+
+	      Shard shard = topology.getRegion(location).getShard(shardIndex);
+	      // a standby shard is only named once a region split activates it, a backup once it is promoted
+	      if(gameServer.isStandby() || backup) {
+	    	  gameServer.setActivation(() -> {
+	    		  try {
+	    			  bindPrimary(ncRef, shard, href);
+	    		  } catch (Exception e) {
+	    			  throw new IllegalStateException(e);
+	    		  }
+	    	  });
+	    	  if(backup) {
+	    		  ncRef.rebind(ncRef.to_name( shard.getBackupServerName() ), href);
+	    		  System.out.println(String.format("GameServer %s following its primary ...", shard.getBackupServerName()));
+	    	  } else {
+	    		  System.out.println(String.format("GameServer %s standing by for a split of region %s ...", shard.getServerName(), location));
+	    	  }
+	    	  return gameServer;
+	      }
+	      
+	      bindPrimary(ncRef, shard, href);
+	      System.out.println(String.format("GameServer %s ready and waiting ...", shard.getServerName()));
+	      return gameServer;
+	}
+
+	private static void bindPrimary(NamingContextExt ncRef, Shard shard, GameServer href) throws Exception {
+		ncRef.rebind(ncRef.to_name( shard.getServerName() ), href);
+		// the first shard doubles as the region's entry point for admin requests
+		if(shard.getIndex() == 0) {
+			ncRef.rebind(ncRef.to_name( shard.getRegion().getServerName() ), href);
+		}
+	}
+
+}
@@ -1,80 +1,293 @@
 package servers;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.omg.CORBA.ORB;
 
-import corbautils.GameServerPOA;
+import corbautils.GameServerOperations;
 import exceptions.BadPasswordException;
 import exceptions.BadUserNameException;
 import exceptions.PlayerRemoveException;
 import exceptions.TransferAccountException;
 import exceptions.UnknownServerRegionException;
+import metrics.InstrumentedLock;
+import metrics.LockMetrics;
+import metrics.MetricsRegistry;
+import metrics.PeerMetrics;
 import models.Player;
+import models.ShardCommand;
+import models.PlayerEvent;
+import models.ShardSync;
+import models.UsernameDigest;
+import models.TransferBatch;
+import topology.CidrBlock;
+import topology.ConsistentHashRing;
+import topology.Region;
+import topology.Shard;
+import topology.Topology;
 
-public class GameServerServant extends GameServerPOA {
-	private final ArrayList<Integer> EXT_UDP_PORTS = new ArrayList<>(Arrays.asList(6789,6790,6791));
-	private int INT_UDP_PORT;
+public class GameServerServant implements GameServerOperations {
 	private final int SERVER_TIMEOUT_IN_MILLIS = 5000;
+	private static final String STATUS_REQUEST = "getStatus";
+	private final int MAX_BATCH_PAYLOAD_IN_BYTES = 60000;
+	private final int TRANSFER_BATCH_MAX_SIZE = 32;
+	private final long TRANSFER_BATCH_WINDOW_IN_MILLIS = 2;
+	private static final Pattern SHARD_STATUS_PATTERN = Pattern.compile("Online: (\\d+) Offline: (\\d+)");
+	private final int MIGRATION_BATCH_ATTEMPTS = 3;
+	private final int REMEMBERED_BATCHES = 1024;
+	private final int SHARD_SPLIT_TIMEOUT_IN_MILLIS = 120000;
+	private final int BULK_CHUNK_SIZE = 32768;
+	private final int BULK_WRITE_BUFFER_SIZE = 1 << 16;
+	// bulk files are named relative to this directory, and exports leave passwords out unless told otherwise
+	private final String BULK_DIRECTORY = System.getProperty("gameserver.bulk.dir", "bulk");
+	private final boolean BULK_EXPORT_PASSWORDS = Boolean.getBoolean("gameserver.bulk.exportPasswords");
+	private final int SPLIT_SYNC_BATCH_SIZE = 200;
+	private final int SPLIT_CATCH_UP_ROUNDS = 5;
+	private final int SPLIT_CUT_OVER_THRESHOLD = 50;
+	private final int BACKUP_STATUS_TIMEOUT_IN_MILLIS = 1000;
+	private final long PEER_METRICS_SUMMARY_INTERVAL_IN_SECONDS = 60;
+	// UDP timeouts adapt to each peer's recent round trips, the fixed timeouts above are their ceilings
+	private final int STATUS_TIMEOUT_FLOOR_IN_MILLIS = 50;
+	private final int STATUS_HEDGE_FLOOR_IN_MILLIS = 2;
+	private final int STATUS_MAX_HEDGES = 2;
+	private final int TRANSFER_TIMEOUT_FLOOR_IN_MILLIS = 1000;
+	private final long RATE_LIMIT_SWEEP_INTERVAL_IN_SECONDS = 10;
+	private final long USERNAME_FILTER_REBUILD_INTERVAL_IN_SECONDS = 300;
+	private final long USERNAME_DIGEST_PUBLISH_INTERVAL_IN_MILLIS = 250;
+	private final int USERNAME_DIGEST_CHUNK_WORDS = 6000;
+	private final int MAX_QUERY_RESULTS = 1000;
+	private final long PLAYER_EVENT_SWEEP_INTERVAL_IN_SECONDS = 1;
+	private final long AUDIT_LOG_FLUSH_INTERVAL_IN_SECONDS = 1;
+	private final long TRANSFER_RETENTION_IN_SECONDS = 600;
+	private final long TRANSFER_SWEEP_INTERVAL_IN_SECONDS = 60;
+	private final long LOG_SEGMENT_SEAL_INTERVAL_IN_SECONDS = 60;
 	
 	// INSTANCE-WIDE TRANSACTIONAL LOCKS
-	private final WriteLock playerHashTransactionLock = new ReentrantReadWriteLock().writeLock();
-	private final WriteLock loggerLock = new ReentrantReadWriteLock().writeLock();
+	private final InstrumentedLock playerHashTransactionLock = new InstrumentedLock("playerHashTransactionLock");
+	private final InstrumentedLock loggerLock = new InstrumentedLock("loggerLock");
+	// -Dgameserver.log=text (the default), binary for the audit log instead, or both
+	private final String logFormat = System.getProperty("gameserver.log", "text");
+	private final boolean textLog = !logFormat.equals("binary");
+	private AuditLog auditLog;
+	private static final DateTimeFormatter LOG_TIMESTAMP = DateTimeFormatter.ofPattern(LogSegments.LINE_TIMESTAMP_PATTERN);
+	private LogSegments logSegments; // guarded by loggerLock, opened with the first line
+	// player operations hold the read side, a split cut-over takes the write side
+	private final ReentrantReadWriteLock ownershipLock = new ReentrantReadWriteLock();
 	
 	private ConcurrentHashMap<Character, CopyOnWriteArrayList<Player>> playerHash = new ConcurrentHashMap<>();
+	
+	// ACCOUNT TRANSFERS -- latest transfer per username, resolved off the ORB thread, kept for TRANSFER_RETENTION_IN_SECONDS once resolved
+	private final ConcurrentHashMap<String, AccountTransfer> accountTransfers = new ConcurrentHashMap<>();
+	private final AtomicLong transferSequence = new AtomicLong();
+	private final AtomicInteger inFlightTransfers = new AtomicInteger();
+	private final ExecutorService transferExecutor = Executors.newCachedThreadPool();
+	private final ScheduledExecutorService transferBatchScheduler = Executors.newSingleThreadScheduledExecutor();
+	private final ConcurrentHashMap<String, TransferBatcher> transferBatchers = new ConcurrentHashMap<>();
+	// RATE LIMITS -- token buckets per client IP and username, checked before each operation does any work
+	private final RateLimiter rateLimiter = new RateLimiter();
+	
+	// USERNAME FILTER -- names of the stored players, added under playerHashTransactionLock before the player is stored
+	private final UsernameFilter usernameFilter = new UsernameFilter(
+			() -> this.playerHash.values().stream().flatMap(List::stream).map(Player::getuName).iterator(),
+			playerHashTransactionLock, transferBatchScheduler, USERNAME_FILTER_REBUILD_INTERVAL_IN_SECONDS);
+	
+	// PLAYER EVENTS -- state changes numbered for subscribers, published after the change is stored
+	private final PlayerEventStream playerEvents;
+	
+	// PLAYER INDEXES -- stored players by subnet, status and age, filed and refiled wherever the store or those fields change
+	private final PlayerIndexes playerIndexes = new PlayerIndexes();
+	
+	// USERNAME DIGESTS -- this shard's username filter replicated to the shards of the other regions, and theirs here
+	private final PeerUsernameDigests peerUsernameDigests = new PeerUsernameDigests();
+	private final Set<String> peersNeedingDigestSnapshot = ConcurrentHashMap.newKeySet();
+	private final Set<String> peersReceivingDigest = ConcurrentHashMap.newKeySet();
+	// only touched by the publishing task on transferBatchScheduler
+	private long publishedDigestGeneration, publishedDigestSequence;
+	private final LongAdder usernameDigestHits = new LongAdder();
+	private final LongAdder crossRegionDuplicates = new LongAdder();
+	private final LongAdder usernameConfirmFailures = new LongAdder();
+	
+	// STATUS AGGREGATION -- concurrent admin status requests share the one in flight
+	private final AtomicReference<CompletableFuture<String>> statusAggregation = new AtomicReference<>();
+	private final LongAdder statusAggregations = new LongAdder();
+	private final LongAdder coalescedStatusRequests = new LongAdder();
+	
+	// blocking UDP calls to peers, while the coordinators waiting on them stay on transferExecutor
+	private final PeerCallExecutor peerCallExecutor = new PeerCallExecutor("peer-calls");
+	// messages handed to peers hosted in this JVM instead of sent over UDP
+	private final LongAdder localPeerCalls = new LongAdder();
+	private final LocalPeers.Endpoint localEndpoint = this::handlePeerMessage;
+	
+	// REGION MIGRATIONS -- outbound progress, and inbound batch ids already applied (guarded by playerHashTransactionLock)
+	private final ConcurrentHashMap<Long, RegionMigration> regionMigrations = new ConcurrentHashMap<>();
+	private final AtomicLong migrationSequence = new AtomicLong();
+	private final AtomicLong batchSequence = new AtomicLong();
+	private final Set<String> appliedTransferBatches = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+			return size() > REMEMBERED_BATCHES;
+		}
+	});
+	
+	// REGION SPLITS -- splits coordinated by this shard, and the slice this shard is handing over
+	private final ConcurrentHashMap<Long, RegionSplit> regionSplits = new ConcurrentHashMap<>();
+	private final AtomicLong splitSequence = new AtomicLong();
+	private volatile ShardSplit shardSplit;
+	private volatile boolean standby;
+	private Runnable activation;
+	// while joining, only the slices whose previous owner has handed them over are served
+	private volatile ConsistentHashRing joiningFrom;
+	private final Set<Integer> handedOverShards = ConcurrentHashMap.newKeySet();
+	
+	// REPLICATION -- a primary streams its mutations to backups, a backup follows its primary until promoted
+	private volatile ReplicationPublisher replicationPublisher;
+	private volatile ReplicationSubscriber replicationSubscriber;
+	private volatile boolean backup;
 
 	private String gameServerLocation;
+	private final Topology topology;
+	private final Region region;
+	private final Shard shard;
+	private final String serverLabel;
+	private final MetricsRegistry metrics = new MetricsRegistry();
 	private ORB orb;
 
-	public GameServerServant(String location) throws UnknownServerRegionException {
-		super();
+	public GameServerServant(String location, Topology topology) throws UnknownServerRegionException {
+		this(location, 0, topology);
+	}
+
+	public GameServerServant(String location, int shardIndex, Topology topology) throws UnknownServerRegionException {
+		this(location, shardIndex, false, topology);
+	}
+
+	public GameServerServant(String location, int shardIndex, boolean backup, Topology topology) throws UnknownServerRegionException {
 		this.gameServerLocation = location; 
+		this.topology = topology;
+		this.region = topology.getRegion(location);
+		// a shard beyond the configured count stands by, empty and unnamed, until a split hands it its players
+		this.standby = shardIndex >= region.getShardCount();
+		if(standby) {
+			this.joiningFrom = new ConsistentHashRing(location, region.getShardCount());
+			region.resize(shardIndex + 1);
+		}
+		this.shard = region.getShard(shardIndex);
+		this.serverLabel = backup ? shard.getLabel() + "-backup" : shard.getLabel();
+		this.playerEvents = new PlayerEventStream(this.serverLabel, shard.getEventPort());
 		// create a region administrator account
-		createPlayerAccount("Admin","Admin","Admin","Admin", getRegionDefaultIP(), 0);
-		seedDataStore();
-		setExternalPorts();
-		runRegionUdpServer();
+		addPlayerAccount("Admin","Admin","Admin","Admin", getRegionDefaultIP(), 0, PlayerEvent.Type.CREATED);
+		this.backup = backup;
+		if(backup) {
+			followPrimary();
+			runRegionUdpServer(shard.getBackupUdpPort());
+		} else {
+			if(!standby) seedDataStore();
+			startReplication();
+			startPlayerEvents();
+			runRegionUdpServer(shard.getUdpPort());
+		}
+		if(!logFormat.equals("text")) startAuditLog();
+		transferBatchScheduler.scheduleAtFixedRate(this::logPeerMetrics, 
+				PEER_METRICS_SUMMARY_INTERVAL_IN_SECONDS, PEER_METRICS_SUMMARY_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+		transferBatchScheduler.scheduleAtFixedRate(rateLimiter::evictIdle, 
+				RATE_LIMIT_SWEEP_INTERVAL_IN_SECONDS, RATE_LIMIT_SWEEP_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+		transferBatchScheduler.scheduleAtFixedRate(playerEvents::dropLapped, 
+				PLAYER_EVENT_SWEEP_INTERVAL_IN_SECONDS, PLAYER_EVENT_SWEEP_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+		transferBatchScheduler.scheduleAtFixedRate(this::publishUsernameDigest, 
+				USERNAME_DIGEST_PUBLISH_INTERVAL_IN_MILLIS, USERNAME_DIGEST_PUBLISH_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+		transferBatchScheduler.scheduleAtFixedRate(this::evictResolvedTransfers, 
+				TRANSFER_SWEEP_INTERVAL_IN_SECONDS, TRANSFER_SWEEP_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+		if(textLog) transferBatchScheduler.scheduleAtFixedRate(this::sealDueLogSegment, 
+				LOG_SEGMENT_SEAL_INTERVAL_IN_SECONDS, LOG_SEGMENT_SEAL_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
 	}
 	
 	// CORE PLAYER FUNCTIONALITY
 	
-	private void seedDataStore() throws UnknownServerRegionException {
-		createPlayerAccount("Allen","White","whiteallen7","password", getRegionDefaultIP(), 23);
-		createPlayerAccount("Bill","Johns","billy20","password", getRegionDefaultIP(), 48);
-		createPlayerAccount("Crystal","Reigo","petula71","password", getRegionDefaultIP(), 35);
+	private void seedDataStore() {
+		if(ownsUsername("whiteallen7")) addPlayerAccount("Allen","White","whiteallen7","password", getRegionDefaultIP(), 23, PlayerEvent.Type.CREATED);
+		if(ownsUsername("billy20")) addPlayerAccount("Bill","Johns","billy20","password", getRegionDefaultIP(), 48, PlayerEvent.Type.CREATED);
+		if(ownsUsername("petula71")) addPlayerAccount("Crystal","Reigo","petula71","password", getRegionDefaultIP(), 35, PlayerEvent.Type.CREATED);
 	}
 
 	@Override
 	public String createPlayerAccount(String fName, String lName, String uName, String password, String ipAddress, int age) {
+		String rateLimited = rateLimiter.check("createPlayerAccount", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		serverLog("Initiating CREATEACCOUNT for player", ipAddress);
-		
+		return withOwnership(uName, ipAddress, () -> {
+			String errTaken = findUsernameInPeerRegions(uName, ipAddress);
+			if(errTaken != null) {
+				serverLog(errTaken, ipAddress);
+				return errTaken;
+			}
+			return createOwnedPlayerAccount(fName, lName, uName, password, ipAddress, age, PlayerEvent.Type.CREATED);
+		});
+	}
+	
+	// accounts the server creates itself, seeded or transferred in, are neither rate limited nor checked against other regions
+	private String addPlayerAccount(String fName, String lName, String uName, String password, String ipAddress, int age, PlayerEvent.Type event) {
+		serverLog("Initiating CREATEACCOUNT for player", ipAddress);
+		return withOwnership(uName, ipAddress, () -> createOwnedPlayerAccount(fName, lName, uName, password, ipAddress, age, event));
+	}
+	
+	private String createOwnedPlayerAccount(String fName, String lName, String uName, String password, String ipAddress, int age, PlayerEvent.Type event) {
 		Character uNameFirstChar = uName.charAt(0);
 		String retString = "An Error was encountered!";
 		
@@ -87,13 +300,20 @@ public class GameServerServant extends GameServerPOA {
 				
 				Player playerToAdd = new Player(fName, lName, uName, password, ipAddress, age);
 				
-				Optional<Player> playerExists = this.playerHash.get(uNameFirstChar)
+				// a name the filter has never seen cannot be stored, so the scan for it is skipped
+				Optional<Player> playerExists = !usernameFilter.mightContain(uName) ? Optional.empty() : this.playerHash.get(uNameFirstChar)
 						.stream().filter(player -> player.getuName().equals(uName)).findAny();
 				
 				if(playerExists.isPresent()) {
 					retString = "Player with that username already exists!";
 				} else {
+					usernameFilter.add(uName);
 					this.playerHash.get(uNameFirstChar).addIfAbsent(playerToAdd);
+					playerIndexes.add(playerToAdd);
+					// an earlier account's transfer is not the new account's
+					this.accountTransfers.remove(uName);
+					recordMutation(uName);
+					playerEvents.publish(event, uName, ipAddress, "");
 					retString = String.format("Successfully created account for player with username -- '%s'", uName);
 				}
 				
@@ -109,10 +329,27 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String playerSignIn(String uName, String password, String ipAddress) {
-		Player playerToSignIn = null;
+		String rateLimited = rateLimiter.check("playerSignIn", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		serverLog("Initiating SIGNIN for player", ipAddress);
+		ShardSplit split = this.shardSplit;
+		long start = System.nanoTime();
+		String retStatement = withOwnership(uName, ipAddress, () -> signInOwnedPlayer(uName, password, ipAddress));
+		if(split != null) split.recordSignIn(System.nanoTime() - start);
+		if(retStatement.endsWith("does not exist")) rateLimiter.recordFailure("playerSignIn", uName);
+		return retStatement;
+	}
+	
+	private String signInOwnedPlayer(String uName, String password, String ipAddress) {
+		Player playerToSignIn = null;
 		Character uNameFirstChar = uName.charAt(0);
 		
+		if(!usernameFilter.mightContain(uName)) {
+			String errExist = String.format("Player with username '%s' and that password combination does not exist", uName);
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
 		if(!this.playerHash.containsKey(uNameFirstChar)) {
 			String errExist = String.format("Player with username '%s' does not exist", uName);
 			serverLog(errExist, ipAddress);
@@ -131,9 +368,16 @@ public class GameServerServant extends GameServerPOA {
 					String errSignedIn = String.format("Player '%s' is already signed in", uName); 
 					serverLog(errSignedIn, ipAddress);
 					return errSignedIn;
+				} else if(isTransferPending(uName)) {
+					String errPending = String.format("Player '%s' has an account transfer in progress", uName);
+					serverLog(errPending, ipAddress);
+					return errPending;
 				} else {
 					
 					playerToSignIn.setStatus(true);
+					playerIndexes.refile(playerToSignIn);
+					recordMutation(uName);
+					playerEvents.publish(PlayerEvent.Type.SIGNED_IN, uName, ipAddress, "");
 				}
 				String success = String.format("Successfully signed in player with username -- '%s'",uName);
 				serverLog(success, ipAddress);
@@ -151,8 +395,14 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String playerSignOut(String uName, String ipAddress) {
-		Player playerToSignOut = null;
+		String rateLimited = rateLimiter.check("playerSignOut", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		serverLog("Initiating SIGNOUT for player", ipAddress);
+		return withOwnership(uName, ipAddress, () -> signOutOwnedPlayer(uName, ipAddress));
+	}
+	
+	private String signOutOwnedPlayer(String uName, String ipAddress) {
+		Player playerToSignOut = null;
 		Character uNameFirstChar = uName.charAt(0);
 		
 		if(!this.playerHash.containsKey(uNameFirstChar)) {
@@ -176,6 +426,9 @@ public class GameServerServant extends GameServerPOA {
 				} else {
 					
 						playerToSignOut.setStatus(false);
+						playerIndexes.refile(playerToSignOut);
+						recordMutation(uName);
+						playerEvents.publish(PlayerEvent.Type.SIGNED_OUT, uName, ipAddress, "");
 					}
 				String success = String.format("Successfully signed out player with username -- '%s'",uName);
 				serverLog(success, ipAddress);
@@ -193,8 +446,15 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String transferAccount(String uName, String password, String oldIpAddress, String newIpAddress) {
-		Player playerToTransfer = null;
+		String rateLimited = rateLimiter.check("transferAccount", oldIpAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		serverLog("Initiating TRANSFER ACCOUNT action for player", oldIpAddress);
+		return withOwnership(uName, oldIpAddress, () -> transferOwnedAccount(uName, password, oldIpAddress, newIpAddress));
+	}
+	
+	private String transferOwnedAccount(String uName, String password, String oldIpAddress, String newIpAddress) {
+		Player playerToTransfer = null;
+		AccountTransfer transfer = null;
 		Character uNameFirstChar = uName.charAt(0);
 		
 		if(!this.playerHash.containsKey(uNameFirstChar)) {
@@ -204,56 +464,62 @@ public class GameServerServant extends GameServerPOA {
 		}
 		
 		try {	
-				playerToTransfer = this.playerHash.get(uNameFirstChar).stream().filter(player -> {
-					return player.getuName().equals(uName) && player.getPassword().equals(password);
-				}).findAny().orElse(null);
-				
-				boolean wasOnline = false;
-				
-				if(playerToTransfer != null) {
-					try {
-						playerToTransfer.acquireLock(); // LOCK
-						
-						playerToTransfer.setIpAddress(newIpAddress);
-						
-						if(playerToTransfer.getStatus()) {
-							playerToTransfer.setStatus(false);
-							wasOnline = true;
-						}
-						
-						threadSafeRemovePlayer(playerToTransfer, uNameFirstChar);
-						
-						int ret = atomicallyExecuteTransfer(playerToTransfer, uNameFirstChar, newIpAddress);
-						
-						if(ret > 0) {
-							String log = String.format("Successfully TRANSFERRED ACCOUNT for player with username %s to %s", uName, newIpAddress);
-							serverLog(log, uName);
-							return log;
-						} else {
-							throw new TransferAccountException();
-						}
-						
-					} catch(PlayerRemoveException e) {
-						String err = String.format("Failed to delete player with username -- %s because account does not exist. Aborting TRANSFER!", uName);
-						serverLog(err, oldIpAddress);
-						return err;
-					} catch(TransferAccountException e) {
-						String err = String.format("Failed to add player account with username %s on remote server. ROLLING BACK!", uName);
-						playerToTransfer.setIpAddress(oldIpAddress);
-						if(wasOnline) playerToTransfer.setStatus(true);
-						threadSafeAddPlayerBack(playerToTransfer, uNameFirstChar);
-						serverLog(err, oldIpAddress);
-						return err;
-					}
-				} 
-			} finally {
-				if(playerToTransfer != null && playerToTransfer.hasLock()) 
-					playerToTransfer.releaseLock(); // UNLOCK
+			playerToTransfer = this.playerHash.get(uNameFirstChar).stream().filter(player -> {
+				return player.getuName().equals(uName) && player.getPassword().equals(password);
+			}).findAny().orElse(null);
+			
+			if(playerToTransfer == null) {
+				String errExist = String.format("Player with username '%s' and that password combination does not exist", uName);
+				serverLog(errExist, oldIpAddress);
+				return errExist;
+			}
+			
+			playerToTransfer.acquireLock(); // LOCK
+			
+			if(isTransferPending(uName)) {
+				String errPending = String.format("Player '%s' already has an account transfer in progress", uName);
+				serverLog(errPending, oldIpAddress);
+				return errPending;
 			}
+			
+			// the player stays in the store, signed out, until the remote server answers
+			boolean wasOnline = playerToTransfer.getStatus();
+			playerToTransfer.setIpAddress(newIpAddress);
+			playerToTransfer.setStatus(false);
+			playerIndexes.refile(playerToTransfer);
+			
+			transfer = new AccountTransfer(this.transferSequence.incrementAndGet(), uName, password, oldIpAddress, newIpAddress, wasOnline);
+			this.accountTransfers.put(uName, transfer);
+			this.inFlightTransfers.incrementAndGet();
+			recordMutation(uName);
+		} finally {
+			if(playerToTransfer != null && playerToTransfer.hasLock()) 
+				playerToTransfer.releaseLock(); // UNLOCK
+		}
 		
-		String errExist = String.format("Player with username '%s' and that password combination does not exist", uName);
-		serverLog(errExist, oldIpAddress);
-		return errExist;
+		dispatchTransfer(playerToTransfer, transfer);
+		
+		String pending = transfer.describe();
+		serverLog(pending, oldIpAddress);
+		return pending;
+	}
+	
+	@Override
+	public String getTransferStatus(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("getTransferStatus", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating TRANSFER STATUS request for player", ipAddress);
+		AccountTransfer transfer = this.accountTransfers.get(uName);
+		
+		if(transfer == null || !transfer.getPassword().equals(password)) {
+			String errExist = String.format("No account transfer found for player with username '%s' and that password combination", uName);
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		String status = transfer.describe();
+		serverLog(status, ipAddress);
+		return status;
 	}
 	
 	// END OF CORE PLAYER FUNCTIONALITY
@@ -262,6 +528,8 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String adminSignIn(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("adminSignIn", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		Player adminToSignIn = null;
 		serverLog("Initiating SIGNIN for admin", ipAddress);
 		Character uNameFirstChar = uName.charAt(0);
@@ -295,6 +563,7 @@ public class GameServerServant extends GameServerPOA {
 				
 		}
 		
+		rateLimiter.recordFailure("adminSignIn", uName);
 		String errExist = "Admin with that password combination does not exist";
 		serverLog(errExist, ipAddress);
 		return errExist;
@@ -302,6 +571,8 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String adminSignOut(String uName, String ipAddress) {
+		String rateLimited = rateLimiter.check("adminSignOut", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		Player adminToSignOut = null;
 		serverLog("Initiating SIGNOUT for admin", ipAddress);
 		Character uNameFirstChar = uName.charAt(0);
@@ -339,6 +610,8 @@ public class GameServerServant extends GameServerPOA {
 	
 	@Override
 	public String getPlayerStatus(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("getPlayerStatus", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		String retStatement = "Unrecognized Error while requesting player status!";
 		
 		if(!(uName.equals("Admin") && password.equals("Admin"))) {
@@ -351,7 +624,9 @@ public class GameServerServant extends GameServerPOA {
 			}).findAny().orElse(null);
 				
 			if(admin != null) {
-					String ret = retrievePlayerStatuses(ipAddress);
+					String ret = coalescePlayerStatuses(ipAddress) + "\n" 
+							+ String.format("%s: Transfers in flight: %d", this.shard.getLabel(), getInFlightTransferCount())
+							+ describeReplication();
 					serverLog(ret, ipAddress);
 					return ret;
 			}
@@ -363,8 +638,14 @@ public class GameServerServant extends GameServerPOA {
 
 	@Override
 	public String suspendAccount(String uName, String password, String ipAddress, String uNameToSuspend) {
-		Player playerToSuspend = null;
+		String rateLimited = rateLimiter.check("suspendAccount", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
 		serverLog("Initiating PLAYER ACCOUNT SUSPEND action for admin", ipAddress);
+		return withOwnership(uNameToSuspend, ipAddress, () -> suspendOwnedAccount(uName, password, ipAddress, uNameToSuspend));
+	}
+	
+	private String suspendOwnedAccount(String uName, String password, String ipAddress, String uNameToSuspend) {
+		Player playerToSuspend = null;
 		Character uNameFirstChar = uNameToSuspend.charAt(0);
 		
 		if(uName.equals("Admin") && password.equals("Admin")) {
@@ -376,9 +657,18 @@ public class GameServerServant extends GameServerPOA {
 				if(playerToSuspend != null) {
 					playerToSuspend.acquireLock(); // LOCK
 					
+					// the destination may already hold the account, so the transfer has to resolve first
+					if(isTransferPending(uNameToSuspend)) {
+						String errPending = String.format("Cannot suspend account for player with username %s while its account transfer is in progress", uNameToSuspend);
+						serverLog(errPending, ipAddress);
+						return errPending;
+					}
+					
 					Character firstCharOfPlayer = playerToSuspend.getuName().charAt(0);
 					try {
 						threadSafeRemovePlayer(playerToSuspend, firstCharOfPlayer);
+						recordMutation(uNameToSuspend);
+						playerEvents.publish(PlayerEvent.Type.SUSPENDED, uNameToSuspend, playerToSuspend.getIpAddress(), "by " + uName + " from " + ipAddress);
 					} catch(PlayerRemoveException e) {
 						String err = String.format("Failed to delete player account with username %s..", uNameToSuspend);
 						serverLog(err, "Admin");
@@ -404,29 +694,392 @@ public class GameServerServant extends GameServerPOA {
 		return errExist;
 	}
 	
+	@Override
+	public String migratePlayers(String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize) {
+		String rateLimited = rateLimiter.check("migratePlayers", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating REGION MIGRATION action for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		if(targetRegion.equals(this.gameServerLocation) || !this.topology.hasRegion(targetRegion)) {
+			String errRegion = String.format("Cannot migrate players from %s to region '%s'", this.gameServerLocation, targetRegion);
+			serverLog(errRegion, ipAddress);
+			return errRegion;
+		}
+		
+		if(batchSize < 1) {
+			String errBatch = "Migration batch size must be at least 1";
+			serverLog(errBatch, ipAddress);
+			return errBatch;
+		}
+		
+		RegionMigration migration;
+		try {
+			migration = new RegionMigration(this.migrationSequence.incrementAndGet(), targetRegion, uNamePrefix, ipSubnet, offlineOnly);
+		} catch(IllegalArgumentException e) {
+			String errSubnet = String.format("Invalid IP subnet '%s' -- expected a.b.c.d/n or *", ipSubnet);
+			serverLog(errSubnet, ipAddress);
+			return errSubnet;
+		}
+		
+		this.regionMigrations.put(migration.getMigrationId(), migration);
+		transferExecutor.execute(() -> runMigration(migration, batchSize));
+		
+		String started = migration.describe();
+		serverLog(started, ipAddress);
+		return started;
+	}
+	
+	@Override
+	public String getMigrationStatus(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("getMigrationStatus", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating REGION MIGRATION STATUS request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		String status = this.regionMigrations.isEmpty() 
+				? String.format("No region migrations have been started on %s", this.shard.getLabel())
+				: this.regionMigrations.values().stream()
+					.sorted((a, b) -> Long.compare(a.getMigrationId(), b.getMigrationId()))
+					.map(RegionMigration::describe)
+					.collect(Collectors.joining("\n"));
+		serverLog(status, ipAddress);
+		return status;
+	}
+	
+	@Override
+	public String splitRegion(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("splitRegion", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating REGION SPLIT action for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		if(this.shard.getIndex() != 0) {
+			String errShard = String.format("Splits of region %s are coordinated by %s", this.gameServerLocation, this.region.getServerName());
+			serverLog(errShard, ipAddress);
+			return errShard;
+		}
+		
+		RegionSplit split;
+		synchronized(this.regionSplits) {
+			if(this.regionSplits.values().stream().anyMatch(RegionSplit::isRunning)) {
+				String errRunning = String.format("A split of region %s is already running", this.gameServerLocation);
+				serverLog(errRunning, ipAddress);
+				return errRunning;
+			}
+			split = new RegionSplit(this.splitSequence.incrementAndGet(), new Shard(this.region, this.region.getShardCount()));
+			this.regionSplits.put(split.getSplitId(), split);
+		}
+		transferExecutor.execute(() -> runRegionSplit(split));
+		
+		String started = split.describe();
+		serverLog(started, ipAddress);
+		return started;
+	}
+	
+	@Override
+	public String getSplitStatus(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("getSplitStatus", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating REGION SPLIT STATUS request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		String status = this.regionSplits.isEmpty() 
+				? String.format("No region splits have been started on %s", this.shard.getLabel())
+				: this.regionSplits.values().stream()
+					.sorted((a, b) -> Long.compare(a.getSplitId(), b.getSplitId()))
+					.map(RegionSplit::describe)
+					.collect(Collectors.joining("\n"));
+		serverLog(status, ipAddress);
+		return status;
+	}
+	
+	@Override
+	public String promoteBackup(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("promoteBackup", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating BACKUP PROMOTION action for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		synchronized(this) {
+			if(!this.backup) {
+				String errBackup = String.format("%s is not a backup", this.serverLabel);
+				serverLog(errBackup, ipAddress);
+				return errBackup;
+			}
+			
+			// two primaries for one shard would diverge, so a primary that still answers keeps its role
+			String primaryStatus = makeUDPStatusRequestToExternalServer(this.shard, this.shard.getUdpPort(), SERVER_TIMEOUT_IN_MILLIS);
+			if(SHARD_STATUS_PATTERN.matcher(primaryStatus).find()) {
+				String errAlive = String.format("Primary %s is still answering, stop it before promoting %s", this.shard.getLabel(), this.serverLabel);
+				serverLog(errAlive, ipAddress);
+				return errAlive;
+			}
+			
+			this.replicationSubscriber.stop();
+			this.backup = false;
+			runRegionUdpServer(this.shard.getUdpPort());
+			startReplication();
+			startPlayerEvents();
+			
+			String promoted = String.format("Successfully promoted %s to primary after applying entry #%d", 
+					this.serverLabel, this.replicationSubscriber.getAppliedSequence());
+			try {
+				if(this.activation != null) this.activation.run();
+			} catch(RuntimeException e) {
+				promoted += String.format(" -- but %s could not be rebound in the naming service: %s", this.shard.getServerName(), e.getMessage());
+			}
+			serverLog(promoted, ipAddress);
+			return promoted;
+		}
+	}
+	
+	@Override
+	public String getServerMetrics(String uName, String password, String ipAddress) {
+		String rateLimited = rateLimiter.check("getServerMetrics", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating SERVER METRICS request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		String snapshot = this.metrics.describe(this.serverLabel) + "\n" + this.metrics.describePeers(this.serverLabel) 
+				+ "\n" + String.format("%s: %s", this.serverLabel, peerCallExecutor.describe())
+				+ "\n" + String.format("%s: %s", this.serverLabel, rateLimiter.describe())
+				+ "\n" + String.format("%s: %s", this.serverLabel, usernameFilter.describe())
+				+ "\n" + String.format("%s: %s", this.serverLabel, playerIndexes.describe())
+				+ "\n" + String.format("%s: %s", this.serverLabel, playerEvents.describe())
+				+ "\n" + String.format("%s: %s -- possible hits: %d, confirmed duplicates: %d, unconfirmed: %d", this.serverLabel, 
+						peerUsernameDigests.describe(), usernameDigestHits.sum(), crossRegionDuplicates.sum(), usernameConfirmFailures.sum())
+				+ "\n" + String.format("%s: status aggregations: %d, requests coalesced into one in flight: %d", 
+						this.serverLabel, statusAggregations.sum(), coalescedStatusRequests.sum())
+				+ "\n" + String.format("%s: peer messages called directly in this JVM: %d", this.serverLabel, localPeerCalls.sum())
+				+ (auditLog == null ? "" : "\n" + String.format("%s: %s", this.serverLabel, auditLog.describe()))
+				+ "\n" + LockMetrics.describeAll(this.serverLabel);
+		serverLog(snapshot, ipAddress);
+		return snapshot;
+	}
+	
+	@Override
+	public String listPlayers(String uName, String password, String ipAddress, String cursor, int pageSize, String status, String uNamePrefix) {
+		String rateLimited = rateLimiter.check("listPlayers", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating PLAYER LISTING request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		PlayerListing listing;
+		try {
+			listing = new PlayerListing(cursor, pageSize, status, uNamePrefix);
+		} catch(IllegalArgumentException e) {
+			serverLog(e.getMessage(), ipAddress);
+			return e.getMessage();
+		}
+		
+		String page = listing.page(this.serverLabel, this.playerHash);
+		// only the page's summary, a full page of players would swamp the log
+		serverLog(page.substring(0, page.indexOf('\n')), ipAddress);
+		return page;
+	}
+	
+	@Override
+	public String findPlayers(String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly) {
+		String rateLimited = rateLimiter.check("findPlayers", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating PLAYER QUERY request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		CidrBlock subnet;
+		try {
+			subnet = ipSubnet.equals("*") ? null : CidrBlock.parse(ipSubnet);
+		} catch(IllegalArgumentException e) {
+			String errSubnet = String.format("Invalid IP subnet '%s' -- expected a.b.c.d/n or *", ipSubnet);
+			serverLog(errSubnet, ipAddress);
+			return errSubnet;
+		}
+		if(!(status.equals("*") || status.equals("online") || status.equals("offline"))) {
+			String errStatus = String.format("Invalid player status '%s' -- expected online, offline or *", status);
+			serverLog(errStatus, ipAddress);
+			return errStatus;
+		}
+		
+		if(minAge > maxAge) {
+			String errAge = String.format("Invalid age range %d to %d", minAge, maxAge);
+			serverLog(errAge, ipAddress);
+			return errAge;
+		}
+		
+		PlayerIndexes.Query query = playerIndexes.query(subnet, status.equals("*") ? null : status.equals("online"), minAge, maxAge);
+		String description = String.format("players from %s, %s, aged %d to %d", ipSubnet, status, minAge, maxAge);
+		if(countOnly) {
+			String count = String.format("%s: %d %s", this.serverLabel, query.count(), description);
+			serverLog(count, ipAddress);
+			return count;
+		}
+		
+		List<Player> players = query.list(MAX_QUERY_RESULTS + 1);
+		StringBuilder found = new StringBuilder(String.format("%s: %s%d %s", this.serverLabel, 
+				players.size() > MAX_QUERY_RESULTS ? "more than " : "", Math.min(players.size(), MAX_QUERY_RESULTS), description));
+		serverLog(found.toString(), ipAddress);
+		players.stream().limit(MAX_QUERY_RESULTS).forEach(player -> found.append(String.format("\n%s -- %s %s, %d, %s, %s", 
+				player.getuName(), player.getfName(), player.getlName(), player.getAge(), player.getIpAddress(), player.getStatus() ? "online" : "offline")));
+		return found.toString();
+	}
+	
+	@Override
+	public String importPlayers(String uName, String password, String ipAddress, String path) {
+		String rateLimited = rateLimiter.check("importPlayers", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating PLAYER IMPORT request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		if(this.backup) {
+			String errBackup = String.format("%s is a read-only backup of %s", this.serverLabel, this.shard.getServerName());
+			serverLog(errBackup, ipAddress);
+			return errBackup;
+		}
+		
+		PlayerImport progress = new PlayerImport(path);
+		String retStatement;
+		try(PlayerFiles.Reader<?> reader = PlayerFiles.open(resolveBulkFile(path).toString())) {
+			runPlayerImport(reader, progress);
+			retStatement = progress.describe(this.serverLabel);
+		} catch(IOException e) {
+			retStatement = String.format("Could not import players from %s -- %s\n%s", path, e.getMessage(), progress.describe(this.serverLabel));
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			retStatement = String.format("Interrupted importing players from %s\n%s", path, progress.describe(this.serverLabel));
+		}
+		serverLog(retStatement, ipAddress);
+		return retStatement;
+	}
+	
+	@Override
+	public String exportPlayers(String uName, String password, String ipAddress, String path) {
+		String rateLimited = rateLimiter.check("exportPlayers", ipAddress, uName);
+		if(rateLimited != null) return rateLimited;
+		serverLog("Initiating PLAYER EXPORT request for admin", ipAddress);
+		
+		if(!(uName.equals("Admin") && password.equals("Admin"))) {
+			String errExist = "Admin with that password combination does not exist";
+			serverLog(errExist, ipAddress);
+			return errExist;
+		}
+		
+		String retStatement;
+		long start = System.nanoTime();
+		try {
+			long exported = runPlayerExport(path);
+			long elapsedNanos = Math.max(1, System.nanoTime() - start);
+			retStatement = String.format("%s: exported %d players to %s in %.1f s (%.0f records/s)%s",
+					this.serverLabel, exported, path, elapsedNanos / 1e9, exported * 1e9 / elapsedNanos, BULK_EXPORT_PASSWORDS ? "" : ", without passwords");
+		} catch(FileAlreadyExistsException e) {
+			retStatement = String.format("Could not export players to %s -- the file already exists", path);
+		} catch(IOException | ExecutionException e) {
+			retStatement = String.format("Could not export players to %s -- %s", path, e.getMessage());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			retStatement = String.format("Interrupted exporting players to %s", path);
+		}
+		serverLog(retStatement, ipAddress);
+		return retStatement;
+	}
+	
 	// END OF CORE ADMIN FUNCTIONALITY
 	
 	// UTILITIES AND HELPERS
 	
+	// the first caller runs the aggregation, callers arriving while it is in flight wait for and share its result
+	private String coalescePlayerStatuses(String ipAddress) {
+		CompletableFuture<String> aggregation = new CompletableFuture<>();
+		while(true) {
+			if(statusAggregation.compareAndSet(null, aggregation)) break;
+			CompletableFuture<String> inFlight = statusAggregation.get();
+			if(inFlight != null) {
+				coalescedStatusRequests.increment();
+				return inFlight.join();
+			}
+		}
+		statusAggregations.increment();
+		try {
+			aggregation.complete(retrievePlayerStatuses(ipAddress));
+		} catch(RuntimeException e) {
+			aggregation.completeExceptionally(e);
+		} finally {
+			statusAggregation.compareAndSet(aggregation, null);
+		}
+		return aggregation.join();
+	}
+	
+	// every shard of every region is asked for its counts, which are then summed per region
 	private String retrievePlayerStatuses(String ipAddress) {
-	    CompletableFuture<String> intRetrieve = CompletableFuture.supplyAsync(()->{
-			return getPlayerCounts();
-	    });
-
-	    CompletableFuture<String> extRetrieve1 = CompletableFuture.supplyAsync(()->{
-	    	return makeUDPStatusRequestToExternalServer(EXT_UDP_PORTS.get(0));
-	    });
-
-	    CompletableFuture<String> extRetrieve2 = CompletableFuture.supplyAsync(()->{
-	    	return makeUDPStatusRequestToExternalServer(EXT_UDP_PORTS.get(1));
-	    });
+	    List<Region> regions = new ArrayList<>();
+	    regions.add(this.region);
+	    regions.addAll(this.topology.getPeers(this.gameServerLocation));
+	    
+	    Map<String, List<CompletableFuture<String>>> retrieves = new LinkedHashMap<>();
+	    for(Region regionToQuery : regions) {
+	    	List<CompletableFuture<String>> shardRetrieves = new ArrayList<>();
+	    	for(Shard shardToQuery : regionToQuery.getShards()) {
+	    		if(isLocalShard(shardToQuery)) {
+	    			shardRetrieves.add(CompletableFuture.completedFuture(getPlayerCounts()));
+	    		} else {
+	    			shardRetrieves.add(CompletableFuture.supplyAsync(()->{
+	    				return queryShardStatus(shardToQuery);
+	    			}, peerCallExecutor));
+	    		}
+	    	}
+	    	retrieves.put(regionToQuery.getId(), shardRetrieves);
+	    }
 
-	    CompletableFuture<Void> allRetrieve = CompletableFuture.allOf(intRetrieve, extRetrieve1, extRetrieve2); 
+	    CompletableFuture<Void> allRetrieve = CompletableFuture.allOf(retrieves.values().stream()
+	    		.flatMap(List::stream).toArray(CompletableFuture<?>[]::new)); 
 	    
 	    try {
 	        allRetrieve.get();
-	        String retSucc = Stream.of(intRetrieve, extRetrieve1, extRetrieve2)
-	        		.map(CompletableFuture::join)
+	        String retSucc = retrieves.entrySet().stream()
+	        		.map(entry -> summarizeRegionStatus(entry.getKey(), entry.getValue()))
 	        		.collect(Collectors.joining("\n"));
 	        serverLog(retSucc,ipAddress);
 	        return retSucc;
@@ -440,6 +1093,33 @@ public class GameServerServant extends GameServerPOA {
 	    return err;
 	}
 	
+	private String summarizeRegionStatus(String regionId, List<CompletableFuture<String>> shardRetrieves) {
+		int online = 0;
+		int offline = 0;
+		List<String> errors = new ArrayList<>();
+		for(CompletableFuture<String> shardRetrieve : shardRetrieves) {
+			String shardStatus = shardRetrieve.join();
+			Matcher counts = SHARD_STATUS_PATTERN.matcher(shardStatus);
+			if(counts.find()) {
+				online += Integer.parseInt(counts.group(1));
+				offline += Integer.parseInt(counts.group(2));
+			} else {
+				errors.add(shardStatus.trim());
+			}
+		}
+		String summary = String.format("%s: Online: %d Offline: %d", regionId, online, offline);
+		return errors.isEmpty() ? summary : summary + " -- incomplete: " + String.join("; ", errors);
+	}
+	
+	// replicated shards are asked through their backup first, which offloads the primary and covers one that is down
+	private String queryShardStatus(Shard peer) {
+		if(peer.getRegion().isReplicated()) {
+			String backupStatus = makeUDPStatusRequestToExternalServer(peer, peer.getBackupUdpPort(), BACKUP_STATUS_TIMEOUT_IN_MILLIS);
+			if(SHARD_STATUS_PATTERN.matcher(backupStatus).find()) return backupStatus;
+		}
+		return makeUDPStatusRequestToExternalServer(peer, peer.getUdpPort(), SERVER_TIMEOUT_IN_MILLIS);
+	}
+	
 	private String getPlayerCounts() {
 		int online = 0;
 		int offline = 0;
@@ -448,6 +1128,10 @@ public class GameServerServant extends GameServerPOA {
 			for(Character index : this.playerHash.keySet()) {
 				for(Player player : this.playerHash.get(index)) {
 					if(player.getfName().equals("Admin")) continue;
+					// copies still owned by a shard that has not handed them over yet
+					if(this.joiningFrom != null && !ownsUsername(player.getuName())) continue;
+					// on their way out, and counted by the destination once it has stored them
+					if(isTransferPending(player.getuName())) continue;
 					if(player.getStatus()) {
 						online += 1;
 					} else {
@@ -458,82 +1142,948 @@ public class GameServerServant extends GameServerPOA {
 		} finally {
 			playerHashTransactionLock.unlock(); // UNLOCK
 		}
-		String succ = String.format("%s: Online: %d Offline: %d", this.gameServerLocation, online, offline);
-		serverLog(succ, "Admin@"+this.gameServerLocation);
+		String succ = String.format("%s: Online: %d Offline: %d", this.shard.getLabel(), online, offline);
+		serverLog(succ, "Admin@"+this.shard.getLabel());
 		return succ;
 	}
 	
-	private int atomicallyExecuteTransfer(Player playerToTransfer, Character firstChar, String newIpAddress) throws TransferAccountException {
-		byte[] serializedPlayer = serializePlayerObject(playerToTransfer);
+	private void dispatchTransfer(Player playerToTransfer, AccountTransfer transfer) {
+		CompletableFuture<String> remoteResult;
+		try {
+			Shard destination = this.topology.getRegionForIpAddress(transfer.getNewIpAddress()).getShardFor(transfer.getuName());
+			remoteResult = this.transferBatchers.computeIfAbsent(destination.getServerName(), name -> createTransferBatcher(destination)).submit(playerToTransfer);
+		} catch(UnknownServerRegionException e) {
+			remoteResult = CompletableFuture.completedFuture(String.format("No region server for IP address %s", transfer.getNewIpAddress()));
+		}
 		
-		if(serializedPlayer != null) {
-			int portToUse = getRegionUDPServerPort(newIpAddress);
-			if(portToUse > 0) {
-				String retVal = makeUDPTransferRequestToExternalServer(portToUse, serializedPlayer, playerToTransfer.getuName());
-				if(retVal.startsWith("Successfully")){
-					return 1;
+		remoteResult.whenComplete((retVal, e) -> {
+			String outcome = completeTransfer(playerToTransfer, transfer, e == null && retVal.startsWith("Successfully"));
+			serverLog(outcome, transfer.getuName());
+		});
+	}
+	
+	private TransferBatcher createTransferBatcher(Shard destination) {
+		return new TransferBatcher(players -> sendTransferBatch(destination, players), 
+				TRANSFER_BATCH_MAX_SIZE, TRANSFER_BATCH_WINDOW_IN_MILLIS, transferBatchScheduler, peerCallExecutor);
+	}
+	
+	private Map<String, String> sendTransferBatch(Shard destination, ArrayList<Player> players) {
+		Map<String, String> results = new HashMap<>();
+		TransferBatch batch = new TransferBatch(this.shard.getLabel(), this.batchSequence.incrementAndGet(), false, players);
+		String retVal = makeUDPTransferRequestToExternalServer(destination, batch, "Admin");
+		for(String line : retVal.split("\n")) {
+			int separator = line.indexOf('\t');
+			if(separator > 0) results.put(line.substring(0, separator), line.substring(separator + 1));
+		}
+		return results;
+	}
+	
+	private String completeTransfer(Player playerToTransfer, AccountTransfer transfer, boolean remoteAdded) {
+		String uName = transfer.getuName();
+		try {
+			playerToTransfer.acquireLock(); // LOCK
+			
+			if(remoteAdded) {
+				try {
+					threadSafeRemovePlayer(playerToTransfer, uName.charAt(0));
+					playerEvents.publish(PlayerEvent.Type.TRANSFERRED_OUT, uName, transfer.getOldIpAddress(), "to " + transfer.getNewIpAddress());
+				} catch(PlayerRemoveException e) {
+					// a pending transfer holds off suspensions, so the player is still stored
 				}
+				recordMutation(uName);
+				String log = String.format("Successfully TRANSFERRED ACCOUNT for player with username %s to %s", uName, transfer.getNewIpAddress());
+				transfer.commit(log);
+				return log;
 			} else {
-				return -1;
+				playerToTransfer.setIpAddress(transfer.getOldIpAddress());
+				if(transfer.getWasOnline()) playerToTransfer.setStatus(true);
+				playerIndexes.refile(playerToTransfer);
+				recordMutation(uName);
+				String err = String.format("Failed to add player account with username %s on remote server. ROLLED BACK!", uName);
+				transfer.rollBack(err);
+				return err;
 			}
+		} finally {
+			this.inFlightTransfers.decrementAndGet();
+			if(playerToTransfer.hasLock()) 
+				playerToTransfer.releaseLock(); // UNLOCK
 		}
-		return -1;
 	}
 	
-	private String addPlayerToServer(Player p) {
-		return createPlayerAccount(p.getfName(), p.getlName(), p.getuName(), p.getPassword(), p.getIpAddress(), p.getAge());
+	private boolean isTransferPending(String uName) {
+		AccountTransfer transfer = this.accountTransfers.get(uName);
+		return transfer != null && transfer.isPending();
 	}
 	
-	private void threadSafeRemovePlayer(Player playerToSuspend, Character firstCharOfPlayer) throws PlayerRemoveException {
-		if(this.playerHash.get(firstCharOfPlayer).contains(playerToSuspend)) {
-			this.playerHash.get(firstCharOfPlayer).remove(playerToSuspend);
-		} else {
-			throw new PlayerRemoveException();
-		}
+	private void evictResolvedTransfers() {
+		long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(TRANSFER_RETENTION_IN_SECONDS);
+		this.accountTransfers.values().removeIf(transfer -> transfer.resolvedBefore(cutoff));
 	}
 	
-	private void threadSafeAddPlayerBack(Player playerToTransfer, Character uNameFirstChar) {
-		// not calling createPlayer to avoid logging
-		this.playerHash.get(uNameFirstChar).addIfAbsent(playerToTransfer);
+	public int getInFlightTransferCount() {
+		return this.inFlightTransfers.get();
 	}
 	
-	// NETWORK UTILS 
-	
-	private void runRegionUdpServer() {
+	// streams the matching players in batches; a batch is only sent once the previous one was acknowledged
+	private void runMigration(RegionMigration migration, int batchSize) {
+		List<Player> candidates = this.playerHash.values().stream()
+				.flatMap(List::stream)
+				.filter(migration::matches)
+				.collect(Collectors.toList());
+		migration.setMatched(candidates.size());
+		
+		try {
+			Region destination = this.topology.getRegion(migration.getTargetRegion());
+			for(int start = 0; start < candidates.size(); start += batchSize) {
+				List<Player> chunk = candidates.subList(start, Math.min(start + batchSize, candidates.size()));
+				// each destination shard commits its own part of the chunk
+				Map<Integer, List<Player>> chunkByShard = chunk.stream()
+						.collect(Collectors.groupingBy(player -> destination.getShardFor(player.getuName()).getIndex(), TreeMap::new, Collectors.toList()));
+				for(Map.Entry<Integer, List<Player>> shardChunk : chunkByShard.entrySet()) {
+					migrateChunk(migration, shardChunk.getValue(), destination.getShard(shardChunk.getKey()));
+				}
+				serverLog(migration.describe(), "Admin");
+			}
+		} catch(UnknownServerRegionException e) {
+			serverLog(e.getMessage(), "Admin");
+		}
+		
+		migration.finish();
+		serverLog(migration.describe(), "Admin");
+	}
+	
+	private void migrateChunk(RegionMigration migration, List<Player> chunk, Shard destination) {
+		// keep every batch within a single datagram, halving oversized chunks; a servant in this JVM takes it whole
+		if(chunk.size() > 1 && !LocalPeers.hosts(destination) && estimateBatchSize(chunk) > MAX_BATCH_PAYLOAD_IN_BYTES) {
+			int half = chunk.size() / 2;
+			migrateChunk(migration, chunk.subList(0, half), destination);
+			migrateChunk(migration, chunk.subList(half, chunk.size()), destination);
+			return;
+		}
+		
+		ArrayList<Player> claimedPlayers = new ArrayList<>();
+		ArrayList<AccountTransfer> transfers = new ArrayList<>();
+		for(Player player : chunk) {
+			AccountTransfer transfer = claimForMigration(migration, player, destination.getRegion().getDefaultIp());
+			if(transfer != null) {
+				claimedPlayers.add(player);
+				transfers.add(transfer);
+			}
+		}
+		if(claimedPlayers.isEmpty()) return;
+		
+		boolean committed = false;
+		TransferBatch batch = new TransferBatch(this.shard.getLabel(), this.batchSequence.incrementAndGet(), true, claimedPlayers);
+		for(int attempt = 0; attempt < MIGRATION_BATCH_ATTEMPTS; attempt++) {
+			String retVal = makeUDPTransferRequestToExternalServer(destination, batch, "Admin");
+			committed = retVal.startsWith("Successfully");
+			if(!retVal.contains("timed out")) break;
+		}
+		
+		// the migration keeps the batch's outcome, its players' transfers only guarded them while it was in flight
+		for(int i = 0; i < claimedPlayers.size(); i++) {
+			completeTransfer(claimedPlayers.get(i), transfers.get(i), committed);
+			this.accountTransfers.remove(transfers.get(i).getuName(), transfers.get(i));
+		}
+		migration.recordBatch(committed ? claimedPlayers.size() : 0, committed ? 0 : claimedPlayers.size());
+	}
+	
+	private AccountTransfer claimForMigration(RegionMigration migration, Player player, String targetIpAddress) {
+		String uName = player.getuName();
+		try {
+			player.acquireLock(); // LOCK
+			
+			if(!this.playerHash.get(uName.charAt(0)).contains(player) || isTransferPending(uName) || !migration.matches(player)) {
+				return null;
+			}
+			
+			AccountTransfer transfer = new AccountTransfer(this.transferSequence.incrementAndGet(), uName, player.getPassword(), 
+					player.getIpAddress(), targetIpAddress, player.getStatus());
+			this.accountTransfers.put(uName, transfer);
+			this.inFlightTransfers.incrementAndGet();
+			player.setIpAddress(targetIpAddress);
+			player.setStatus(false);
+			playerIndexes.refile(player);
+			recordMutation(uName);
+			return transfer;
+		} finally {
+			if(player.hasLock())
+				player.releaseLock(); // UNLOCK
+		}
+	}
+	
+	private int estimateBatchSize(List<Player> chunk) {
+		return serializedSize(new TransferBatch(this.shard.getLabel(), 0, true, new ArrayList<>(chunk)));
+	}
+	
+	private int serializedSize(Serializable message) {
+		try {
+			return serializeMessage(message).length;
+		} catch(TransferAccountException e) {
+			return Integer.MAX_VALUE;
+		}
+	}
+	
+	// each player is added on its own, the reply holds one "username<TAB>result" line per player
+	private String applyTransferBatch(TransferBatch batch) {
+		StringBuilder results = new StringBuilder();
+		for(Player player : batch.getPlayers()) {
+			String result = addPlayerToServer(player);
+			results.append(player.getuName()).append('\t').append(result).append('\n');
+		}
+		return results.toString();
+	}
+	
+	// all-or-nothing: a batch is rejected as a whole if any of its usernames is already taken
+	private String applyMigrationBatch(TransferBatch batch) {
+		String batchKey = batch.getSourceRegion() + "#" + batch.getBatchId();
+		List<Player> players = batch.getPlayers();
+		try {
+			ownershipLock.readLock().lock(); // LOCK
+			playerHashTransactionLock.lock(); // LOCK
+			
+			if(!this.appliedTransferBatches.contains(batchKey)) {
+				for(Player player : players) {
+					if(!ownsUsername(player.getuName())) {
+						String err = String.format("Rejected migration batch #%d from %s -- player with username '%s' belongs to %s", 
+								batch.getBatchId(), batch.getSourceRegion(), player.getuName(), ownerOf(player.getuName()).getServerName());
+						serverLog(err, "Admin@" + batch.getSourceRegion());
+						return err;
+					}
+					Character uNameFirstChar = player.getuName().charAt(0);
+					if(this.playerHash.containsKey(uNameFirstChar) && this.playerHash.get(uNameFirstChar).stream()
+							.anyMatch(existing -> existing.getuName().equals(player.getuName()))) {
+						String err = String.format("Rejected migration batch #%d from %s -- player with username '%s' already exists", 
+								batch.getBatchId(), batch.getSourceRegion(), player.getuName());
+						serverLog(err, "Admin@" + batch.getSourceRegion());
+						return err;
+					}
+				}
+				for(Player player : players) {
+					Character uNameFirstChar = player.getuName().charAt(0);
+					this.playerHash.putIfAbsent(uNameFirstChar, new CopyOnWriteArrayList<Player>());
+					usernameFilter.add(player.getuName());
+					this.playerHash.get(uNameFirstChar).addIfAbsent(player);
+					playerIndexes.add(player);
+					recordMutation(player.getuName());
+					playerEvents.publish(PlayerEvent.Type.TRANSFERRED_IN, player.getuName(), player.getIpAddress(), "from " + batch.getSourceRegion());
+				}
+				this.appliedTransferBatches.add(batchKey);
+			}
+		} finally {
+			playerHashTransactionLock.unlock(); // UNLOCK
+			ownershipLock.readLock().unlock(); // UNLOCK
+		}
+		
+		String succ = String.format("Successfully migrated %d players from %s (batch #%d)", players.size(), batch.getSourceRegion(), batch.getBatchId());
+		serverLog(succ, "Admin@" + batch.getSourceRegion());
+		return succ;
+	}
+	
+	// REGION SPLITS
+	
+	// the new shard must already be running in standby; every existing shard copies the slice the
+	// grown ring hands to it, then the shards cut over one by one and the new shard goes live
+	private void runRegionSplit(RegionSplit split) {
+		Shard newShard = split.getNewShard();
+		String regionId = this.gameServerLocation;
+		int shardCount = newShard.getIndex() + 1;
+		List<Shard> sources = this.region.getShards();
+		
+		String prepared = runShardCommand(newShard, new ShardCommand(ShardCommand.Operation.PREPARE, regionId, shardCount));
+		if(!prepared.startsWith("Successfully")) {
+			split.fail(prepared);
+			serverLog(split.describe(), "Admin");
+			return;
+		}
+		split.report(prepared);
+		
+		List<CompletableFuture<String>> copies = sources.stream()
+				.map(source -> CompletableFuture.supplyAsync(() -> runShardCommand(source, new ShardCommand(ShardCommand.Operation.COPY, regionId, shardCount)), peerCallExecutor))
+				.collect(Collectors.toList());
+		boolean copied = true;
+		for(CompletableFuture<String> copy : copies) {
+			String report = copy.join();
+			split.report(report);
+			copied &= report.startsWith("Successfully");
+		}
+		if(!copied) {
+			sources.forEach(source -> runShardCommand(source, new ShardCommand(ShardCommand.Operation.ABORT, regionId, shardCount)));
+			split.fail("Copy failed, the split was aborted and every shard kept its players");
+			serverLog(split.describe(), "Admin");
+			return;
+		}
+		
+		// named before the cut-over so redirects to it resolve, it only serves slices already handed over
+		String activated = runShardCommand(newShard, new ShardCommand(ShardCommand.Operation.ACTIVATE, regionId, shardCount));
+		split.report(activated);
+		if(!activated.startsWith("Successfully")) {
+			sources.forEach(source -> runShardCommand(source, new ShardCommand(ShardCommand.Operation.ABORT, regionId, shardCount)));
+			split.fail("Activation failed, the split was aborted and every shard kept its players");
+			serverLog(split.describe(), "Admin");
+			return;
+		}
+		serverLog(split.describe(), "Admin");
+		
+		split.advance(RegionSplit.State.CUTTING_OVER);
+		for(Shard source : sources) {
+			String report = runShardCommand(source, new ShardCommand(ShardCommand.Operation.CUT_OVER, regionId, shardCount));
+			split.report(report);
+			if(!report.startsWith("Successfully")) {
+				split.fail(String.format("Cut-over stopped at %s, the remaining shards still serve their slices", source.getLabel()));
+				serverLog(split.describe(), "Admin");
+				return;
+			}
+		}
+		
+		for(Region regionToResize : this.topology.getRegions()) {
+			for(Shard shardToResize : regionToResize.getShards()) {
+				if(shardToResize.getRegion().getId().equals(regionId)) continue;
+				runShardCommand(shardToResize, new ShardCommand(ShardCommand.Operation.RESIZE, regionId, shardCount));
+			}
+		}
+		split.advance(RegionSplit.State.COMPLETED);
+		serverLog(split.describe(), "Admin");
+	}
+	
+	private String runShardCommand(Shard target, ShardCommand command) {
+		if(isLocalShard(target)) return handleShardCommand(command);
+		boolean longRunning = command.getOperation() == ShardCommand.Operation.COPY || command.getOperation() == ShardCommand.Operation.CUT_OVER;
+		return makeUDPTransferRequestToExternalServer(target, command, "Admin", 
+				longRunning ? SHARD_SPLIT_TIMEOUT_IN_MILLIS : SERVER_TIMEOUT_IN_MILLIS);
+	}
+	
+	private String handleShardCommand(ShardCommand command) {
+		String result;
+		switch(command.getOperation()) {
+			case PREPARE:
+				result = this.standby 
+						? String.format("Successfully prepared %s to take over part of region %s", this.shard.getLabel(), command.getRegionId())
+						: String.format("%s is already serving players and cannot join a split", this.shard.getLabel());
+				break;
+			case COPY:
+				result = copyMovingSlice(command.getShardCount());
+				break;
+			case CUT_OVER:
+				result = cutOverMovingSlice(command.getShardCount());
+				break;
+			case ABORT:
+				this.shardSplit = null;
+				result = String.format("Successfully aborted split on %s", this.shard.getLabel());
+				break;
+			case ACTIVATE:
+				result = activate();
+				break;
+			case RESIZE:
+				result = resizeRegion(command.getRegionId(), command.getShardCount());
+				break;
+			default:
+				result = String.format("Unknown shard command %s", command.getOperation());
+		}
+		serverLog(result, "Admin");
+		return result;
+	}
+	
+	// bulk copy while the slice keeps serving, then a few rounds shipping what changed in the meantime
+	private String copyMovingSlice(int shardCount) {
+		ShardSplit split = new ShardSplit(new Shard(this.region, shardCount - 1));
+		this.shardSplit = split;
+		
+		List<Player> moving = this.playerHash.values().stream()
+				.flatMap(List::stream)
+				.filter(player -> split.isMoving(player.getuName()))
+				.collect(Collectors.toList());
+		if(!syncPlayers(split.getTarget(), moving, new ArrayList<>(), false)) {
+			this.shardSplit = null;
+			return String.format("%s failed to copy its players to %s", this.shard.getLabel(), split.getTarget().getLabel());
+		}
+		
+		int caughtUp = 0;
+		for(int round = 0; round < SPLIT_CATCH_UP_ROUNDS; round++) {
+			Set<String> changed = split.drainMutations();
+			if(changed.isEmpty()) break;
+			if(!syncUsernames(split.getTarget(), changed, false)) {
+				split.requeueMutations(changed);
+				break;
+			}
+			caughtUp += changed.size();
+			if(changed.size() <= SPLIT_CUT_OVER_THRESHOLD) break;
+		}
+		return String.format("Successfully copied %d players from %s to %s, %d changes caught up", 
+				moving.size(), this.shard.getLabel(), split.getTarget().getLabel(), caughtUp);
+	}
+	
+	// player operations are held off while the last changes are shipped and ownership flips
+	private String cutOverMovingSlice(int shardCount) {
+		ShardSplit split = this.shardSplit;
+		if(split == null) return String.format("%s has no split in progress", this.shard.getLabel());
+		
+		long pauseStart = System.nanoTime();
+		List<String> movedUsernames = new ArrayList<>();
+		try {
+			ownershipLock.writeLock().lock(); // LOCK
+			
+			// transfers already dispatched for moving players settle first so their outcome travels with them
+			for(int wait = 0; hasPendingTransfers(split) && wait * 10 < SERVER_TIMEOUT_IN_MILLIS; wait++) {
+				Thread.sleep(10);
+			}
+			if(hasPendingTransfers(split)) {
+				return String.format("%s still has transfers in flight for moving players", this.shard.getLabel());
+			}
+			
+			Set<String> changed = split.drainMutations();
+			if(!syncUsernames(split.getTarget(), changed, true)) {
+				split.requeueMutations(changed);
+				return String.format("%s failed to ship its final changes to %s", this.shard.getLabel(), split.getTarget().getLabel());
+			}
+			
+			this.region.resize(shardCount);
+			try {
+				playerHashTransactionLock.lock(); // LOCK
+				for(CopyOnWriteArrayList<Player> players : this.playerHash.values()) {
+					List<Player> movedPlayers = players.stream().filter(player -> split.isMoving(player.getuName())).collect(Collectors.toList());
+					players.removeAll(movedPlayers);
+					movedPlayers.forEach(playerIndexes::remove);
+					movedPlayers.forEach(player -> movedUsernames.add(player.getuName()));
+				}
+			} finally {
+				playerHashTransactionLock.unlock(); // UNLOCK
+			}
+			this.shardSplit = null;
+			movedUsernames.forEach(this::recordMutation);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return String.format("%s was interrupted while cutting over", this.shard.getLabel());
+		} finally {
+			ownershipLock.writeLock().unlock(); // UNLOCK
+		}
+		
+		long pauseInMillis = (System.nanoTime() - pauseStart) / 1000000;
+		return String.format("Successfully handed %d players from %s to %s after a %d ms pause -- %s", 
+				movedUsernames.size(), this.shard.getLabel(), split.getTarget().getLabel(), pauseInMillis, split.describeSignInLatency());
+	}
+	
+	private boolean hasPendingTransfers(ShardSplit split) {
+		return this.accountTransfers.values().stream().anyMatch(transfer -> transfer.isPending() && split.isMoving(transfer.getuName()));
+	}
+	
+	// ships the current state of each username, or its removal when it is no longer stored here
+	private boolean syncUsernames(Shard target, Set<String> uNames, boolean handover) {
+		List<Player> players = new ArrayList<>();
+		ArrayList<String> removedUsernames = new ArrayList<>();
+		for(String uName : uNames) {
+			Player player = findPlayer(uName);
+			if(player != null) {
+				players.add(player);
+			} else {
+				removedUsernames.add(uName);
+			}
+		}
+		return syncPlayers(target, players, removedUsernames, handover);
+	}
+	
+	// the handover flag travels on the last datagram only
+	private boolean syncPlayers(Shard target, List<Player> players, ArrayList<String> removedUsernames, boolean handover) {
+		if(players.size() > SPLIT_SYNC_BATCH_SIZE) {
+			return syncPlayers(target, players.subList(0, SPLIT_SYNC_BATCH_SIZE), removedUsernames, false)
+					&& syncPlayers(target, players.subList(SPLIT_SYNC_BATCH_SIZE, players.size()), new ArrayList<>(), handover);
+		}
+		ShardSync sync = new ShardSync(this.shard.getLabel(), this.shard.getIndex(), new ArrayList<>(players), removedUsernames, handover);
+		// keep every sync within a single datagram, halving oversized ones; a servant in this JVM takes it whole
+		if(players.size() > 1 && !LocalPeers.hosts(target) && serializedSize(sync) > MAX_BATCH_PAYLOAD_IN_BYTES) {
+			int half = players.size() / 2;
+			return syncPlayers(target, players.subList(0, half), removedUsernames, false)
+					&& syncPlayers(target, players.subList(half, players.size()), new ArrayList<>(), handover);
+		}
+		return makeUDPTransferRequestToExternalServer(target, sync, "Admin").startsWith("Successfully");
+	}
+	
+	// the newest copy of a moving player replaces whatever an earlier sync delivered
+	private String applyShardSync(ShardSync sync) {
+		try {
+			playerHashTransactionLock.lock(); // LOCK
+			for(Player player : sync.getPlayers()) {
+				Character uNameFirstChar = player.getuName().charAt(0);
+				this.playerHash.putIfAbsent(uNameFirstChar, new CopyOnWriteArrayList<Player>());
+				removeStoredPlayers(this.playerHash.get(uNameFirstChar), existing -> existing.getuName().equals(player.getuName()));
+				usernameFilter.add(player.getuName());
+				this.playerHash.get(uNameFirstChar).add(player);
+				playerIndexes.add(player);
+			}
+			for(String uName : sync.getRemovedUsernames()) {
+				CopyOnWriteArrayList<Player> players = this.playerHash.get(uName.charAt(0));
+				if(players != null) removeStoredPlayers(players, existing -> existing.getuName().equals(uName));
+			}
+		} finally {
+			playerHashTransactionLock.unlock(); // UNLOCK
+		}
+		
+		sync.getPlayers().forEach(player -> recordMutation(player.getuName()));
+		sync.getRemovedUsernames().forEach(this::recordMutation);
+		
+		ConsistentHashRing previousRing = this.joiningFrom;
+		if(sync.isHandover() && previousRing != null) {
+			this.handedOverShards.add(sync.getSourceIndex());
+			if(this.handedOverShards.size() == previousRing.getShardCount()) this.joiningFrom = null;
+		}
+		
+		String succ = String.format("Successfully synced %d players and %d removals from %s", 
+				sync.getPlayers().size(), sync.getRemovedUsernames().size(), sync.getSourceShard());
+		serverLog(succ, "Admin@" + sync.getSourceShard());
+		return succ;
+	}
+	
+	private String activate() {
+		if(!this.standby) return String.format("%s is already active", this.shard.getLabel());
+		try {
+			if(this.activation != null) this.activation.run();
+		} catch(RuntimeException e) {
+			return String.format("%s could not be bound in the naming service -- %s", this.shard.getServerName(), e.getMessage());
+		}
+		this.standby = false;
+		return String.format("Successfully activated %s", this.shard.getServerName());
+	}
+	
+	private String resizeRegion(String regionId, int shardCount) {
+		try {
+			boolean resized = this.topology.getRegion(regionId).resize(shardCount);
+			return String.format("%s %s region %s to %d shards", this.shard.getLabel(), resized ? "resized" : "already had", regionId, shardCount);
+		} catch(UnknownServerRegionException e) {
+			return e.getMessage();
+		}
+	}
+	
+	// every store mutation passes through here, after it has been made
+	private void recordMutation(String uName) {
+		ShardSplit split = this.shardSplit;
+		if(split != null) split.recordMutation(uName);
+		ReplicationPublisher publisher = this.replicationPublisher;
+		if(publisher != null) publisher.append(uName);
+	}
+	
+	// END OF REGION SPLITS
+	
+	// REPLICATION
+	
+	private void startReplication() {
+		if(!this.region.isReplicated()) return;
+		ReplicationPublisher publisher = new ReplicationPublisher(this.serverLabel, this.shard.getReplicationPort(), this::findPlayer, 
+				() -> this.playerHash.values().stream().flatMap(List::stream)
+						.filter(player -> !player.getuName().equals("Admin")).collect(Collectors.toList()));
+		try {
+			publisher.start();
+			this.replicationPublisher = publisher;
+			serverLog(String.format("Publishing mutations to backups on port %d", this.shard.getReplicationPort()), "Admin");
+		} catch(IOException e) {
+			serverLog(String.format("Could not publish mutations on port %d -- %s", this.shard.getReplicationPort(), e.getMessage()), "Admin");
+		}
+	}
+	
+	private void followPrimary() {
+		this.replicationSubscriber = new ReplicationSubscriber(this.shard.getHost(), this.shard.getReplicationPort(), new ReplicationSubscriber.ReplicaStore() {
+			@Override
+			public void reset() {
+				try {
+					playerHashTransactionLock.lock(); // LOCK
+					playerHash.values().forEach(players -> removeStoredPlayers(players, player -> !player.getuName().equals("Admin")));
+				} finally {
+					playerHashTransactionLock.unlock(); // UNLOCK
+				}
+			}
+			
+			@Override
+			public void apply(String uName, Player player) {
+				try {
+					playerHashTransactionLock.lock(); // LOCK
+					playerHash.putIfAbsent(uName.charAt(0), new CopyOnWriteArrayList<Player>());
+					removeStoredPlayers(playerHash.get(uName.charAt(0)), existing -> existing.getuName().equals(uName));
+					if(player != null) {
+						usernameFilter.add(uName);
+						playerHash.get(uName.charAt(0)).add(player);
+						playerIndexes.add(player);
+					}
+				} finally {
+					playerHashTransactionLock.unlock(); // UNLOCK
+				}
+			}
+		}, log -> serverLog(log, "Admin"));
+		this.replicationSubscriber.start();
+	}
+	
+	private String describeReplication() {
+		if(this.backup) return String.format("\n%s: Replication: %s", this.serverLabel, this.replicationSubscriber.describe());
+		if(this.replicationPublisher != null) return String.format("\n%s: Replication: %s", this.serverLabel, this.replicationPublisher.describe());
+		return "";
+	}
+	
+	// END OF REPLICATION
+	
+	// PLAYER EVENTS
+	
+	private void startPlayerEvents() {
+		try {
+			playerEvents.start();
+			serverLog(String.format("Streaming player events to subscribers on port %d", this.shard.getEventPort()), "Admin");
+		} catch(IOException e) {
+			serverLog(String.format("Could not stream player events on port %d -- %s", this.shard.getEventPort(), e.getMessage()), "Admin");
+		}
+	}
+	
+	// END OF PLAYER EVENTS
+	
+	// AUDIT LOG
+	
+	private void startAuditLog() {
+		try {
+			this.auditLog = new AuditLog(this.serverLabel);
+			transferBatchScheduler.scheduleAtFixedRate(auditLog::flush, 
+					AUDIT_LOG_FLUSH_INTERVAL_IN_SECONDS, AUDIT_LOG_FLUSH_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+		} catch (IOException e) {
+			System.out.println(String.format("%s: no binary audit log -- %s", this.serverLabel, e.getMessage()));
+		}
+	}
+	
+	// END OF AUDIT LOG
+	
+	// USERNAME DIGESTS
+	
+	// sends the names added since the last round to every peer shard, or the whole filter to a peer that
+	// lacks this generation or missed a delta; each peer has at most one send in flight
+	private void publishUsernameDigest() {
+		List<String> added = usernameFilter.drainAdded();
+		// a backup publishes nothing until it is promoted, and then starts with a new generation
+		if(this.backup) return;
+		UsernameFilter.Bits live = usernameFilter.getLive();
+		List<Shard> peers = this.topology.getPeers(this.gameServerLocation).stream()
+				.flatMap(peerRegion -> peerRegion.getShards().stream()).collect(Collectors.toList());
+		if(live.getGeneration() != publishedDigestGeneration) {
+			publishedDigestGeneration = live.getGeneration();
+			publishedDigestSequence = 0;
+			peers.forEach(peer -> peersNeedingDigestSnapshot.add(peer.getLabel()));
+		}
+		if(!added.isEmpty()) publishedDigestSequence++;
+		long sequence = publishedDigestSequence;
+		ArrayList<String> delta = new ArrayList<>(added);
+		for(Shard peer : peers) {
+			String label = peer.getLabel();
+			boolean snapshot = peersNeedingDigestSnapshot.contains(label);
+			if(!snapshot && delta.isEmpty()) continue;
+			if(!peersReceivingDigest.add(label)) {
+				// still busy with an earlier round, so this delta is skipped and a snapshot follows instead
+				peersNeedingDigestSnapshot.add(label);
+				continue;
+			}
+			peerCallExecutor.execute(() -> {
+				try {
+					boolean applied = snapshot ? sendDigestSnapshot(peer, live, sequence) 
+							: sendDigestMessage(peer, UsernameDigest.delta(this.shard.getLabel(), live.getGeneration(), sequence, delta));
+					if(applied) {
+						peersNeedingDigestSnapshot.remove(label);
+					} else {
+						peersNeedingDigestSnapshot.add(label);
+					}
+				} finally {
+					peersReceivingDigest.remove(label);
+				}
+			});
+		}
+	}
+	
+	// names added while the words are copied may be in both the snapshot and the next delta, which is harmless
+	private boolean sendDigestSnapshot(Shard peer, UsernameFilter.Bits live, long sequence) {
+		long[] words = live.copyWords();
+		for(int offset = 0; offset < words.length; offset += USERNAME_DIGEST_CHUNK_WORDS) {
+			long[] chunk = Arrays.copyOfRange(words, offset, Math.min(words.length, offset + USERNAME_DIGEST_CHUNK_WORDS));
+			UsernameDigest message = UsernameDigest.snapshotChunk(this.shard.getLabel(), live.getGeneration(), sequence, 
+					live.getBitCount(), live.getHashCount(), words.length, offset, chunk);
+			if(!sendDigestMessage(peer, message)) return false;
+		}
+		return true;
+	}
+	
+	private boolean sendDigestMessage(Shard peer, UsernameDigest message) {
+		int timeoutInMillis = this.metrics.peer(peer.getLabel()).timeoutInMillis(STATUS_TIMEOUT_FLOOR_IN_MILLIS, SERVER_TIMEOUT_IN_MILLIS);
+		try {
+			return exchangeMessage(peer, message, timeoutInMillis).equals(PeerUsernameDigests.APPLIED);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	private String handleUsernameDigest(UsernameDigest message) {
+		if(message.getKind() == UsernameDigest.Kind.CONFIRM) {
+			return findPlayer(message.getUsernames().get(0)) != null ? "present" : "absent";
+		}
+		return peerUsernameDigests.apply(message);
+	}
+	
+	// a name that another region's digest may contain is confirmed with that shard before it is created here;
+	// names created in two regions within one publishing interval, or while a peer cannot answer, still get through
+	private String findUsernameInPeerRegions(String uName, String ipAddress) {
+		for(String owner : peerUsernameDigests.possibleOwners(uName)) {
+			Shard peer = this.topology.getPeers(this.gameServerLocation).stream()
+					.flatMap(peerRegion -> peerRegion.getShards().stream())
+					.filter(shard -> shard.getLabel().equals(owner)).findAny().orElse(null);
+			if(peer == null) continue;
+			usernameDigestHits.increment();
+			int timeoutInMillis = this.metrics.peer(peer.getLabel()).timeoutInMillis(STATUS_TIMEOUT_FLOOR_IN_MILLIS, SERVER_TIMEOUT_IN_MILLIS);
+			try {
+				String reply = exchangeMessage(peer, UsernameDigest.confirm(this.shard.getLabel(), uName), timeoutInMillis);
+				if(reply.equals("present")) {
+					crossRegionDuplicates.increment();
+					return String.format("Player with that username already exists in region %s!", peer.getRegion().getId());
+				}
+			} catch (IOException e) {
+				usernameConfirmFailures.increment();
+				serverLog(String.format("Could not confirm with %s whether username '%s' is taken, creating it anyway -- %s", 
+						peer.getLabel(), uName, e.getMessage()), ipAddress);
+			}
+		}
+		return null;
+	}
+	
+	// END OF USERNAME DIGESTS
+	
+	// BULK IMPORT AND EXPORT -- the caller reads the file in chunks, and workers split, validate and store them;
+	// a full queue has the caller work through a chunk itself, so reading never runs far ahead of storing
+	
+	private <R> void runPlayerImport(PlayerFiles.Reader<R> reader, PlayerImport progress) throws IOException, InterruptedException {
+		ThreadPoolExecutor workers = newBulkWorkers("import");
+		workers.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		try {
+			for(List<R> records = reader.read(BULK_CHUNK_SIZE); !records.isEmpty(); records = reader.read(BULK_CHUNK_SIZE)) {
+				progress.recordRead(records.size());
+				List<R> chunk = records;
+				workers.execute(() -> importPlayerChunk(reader, chunk, progress));
+			}
+		} finally {
+			workers.shutdown();
+			workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	private <R> void importPlayerChunk(PlayerFiles.Reader<R> reader, List<R> records, PlayerImport progress) {
+		Map<Character, List<Player>> buckets = new HashMap<>();
+		for(R record : records) {
+			String[] fields;
+			int age;
+			try {
+				fields = reader.fields(record);
+				age = Integer.parseInt(fields[5].trim());
+			} catch(IllegalArgumentException e) {
+				progress.recordMalformed();
+				continue;
+			}
+			try {
+				Player player = new Player(fields[0], fields[1], fields[2], fields[3], fields[4], age);
+				if(player.getuName().equals("Admin")) {
+					progress.recordInvalid();
+				} else if(!isRegionIpAddress(player.getIpAddress())) {
+					progress.recordElsewhere();
+				} else if(findUsernameInPeerRegions(player.getuName(), "Admin") != null) {
+					// taken in another region, confirmed with its shard only when the digest says it might be
+					progress.recordDuplicate();
+				} else {
+					buckets.computeIfAbsent(player.getuName().charAt(0), first -> new ArrayList<>()).add(player);
+				}
+			} catch(BadUserNameException | BadPasswordException e) {
+				progress.recordInvalid();
+			}
+		}
+		storeImportedPlayers(buckets, progress);
+	}
+	
+	// one copy of each bucket per chunk, and no log line per player
+	private void storeImportedPlayers(Map<Character, List<Player>> buckets, PlayerImport progress) {
+		try {
+			ownershipLock.readLock().lock(); // LOCK
+			playerHashTransactionLock.lock(); // LOCK
+			
+			for(Map.Entry<Character, List<Player>> bucket : buckets.entrySet()) {
+				this.playerHash.putIfAbsent(bucket.getKey(), new CopyOnWriteArrayList<Player>());
+				CopyOnWriteArrayList<Player> stored = this.playerHash.get(bucket.getKey());
+				Map<String, Player> accepted = new LinkedHashMap<>();
+				Set<String> candidates = new HashSet<>();
+				for(Player player : bucket.getValue()) {
+					String name = player.getuName();
+					if(!ownsUsername(name)) {
+						progress.recordElsewhere();
+					} else if(accepted.putIfAbsent(name, player) != null) {
+						progress.recordDuplicate();
+					} else if(usernameFilter.mightContain(name)) {
+						candidates.add(name);
+					}
+				}
+				// names the filter has seen may be stored already, found in one pass over the bucket for the whole chunk
+				if(!candidates.isEmpty()) {
+					for(Player existing : stored) {
+						if(candidates.contains(existing.getuName()) && accepted.remove(existing.getuName()) != null) progress.recordDuplicate();
+					}
+				}
+				accepted.keySet().forEach(usernameFilter::add);
+				stored.addAll(accepted.values());
+				for(Player player : accepted.values()) {
+					playerIndexes.add(player);
+					recordMutation(player.getuName());
+					playerEvents.publish(PlayerEvent.Type.CREATED, player.getuName(), player.getIpAddress(), "imported");
+				}
+				progress.recordImported(accepted.size());
+			}
+		} finally {
+			playerHashTransactionLock.unlock(); // UNLOCK
+			ownershipLock.readLock().unlock(); // UNLOCK
+		}
+	}
+	
+	private boolean isRegionIpAddress(String ipAddress) {
+		try {
+			return this.topology.getRegionForIpAddress(ipAddress) == this.region;
+		} catch(UnknownServerRegionException e) {
+			return false;
+		}
+	}
+	
+	// workers encode slices of a bucket snapshot, and the caller writes them in order while later ones are encoded
+	private long runPlayerExport(String path) throws IOException, InterruptedException, ExecutionException {
+		boolean binary = PlayerFiles.isBinary(path);
+		Path file = resolveBulkFile(path);
+		Files.createDirectories(file.getParent());
+		ThreadPoolExecutor workers = newBulkWorkers("export");
+		Deque<Future<byte[]>> pending = new ArrayDeque<>();
+		long exported = 0;
+		// an existing file is never overwritten
+		try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW), BULK_WRITE_BUFFER_SIZE)) {
+			PlayerFiles.writeHeader(out, binary);
+			for(CopyOnWriteArrayList<Player> bucket : this.playerHash.values()) {
+				List<Player> players = bucket.stream().filter(player -> !player.getuName().equals("Admin")).collect(Collectors.toList());
+				for(int from = 0; from < players.size(); from += BULK_CHUNK_SIZE) {
+					List<Player> slice = players.subList(from, Math.min(players.size(), from + BULK_CHUNK_SIZE));
+					// no more slices in flight than the workers' queue holds
+					while(pending.size() >= workers.getMaximumPoolSize() * 2) {
+						out.write(pending.poll().get());
+					}
+					pending.add(workers.submit(() -> PlayerFiles.encode(slice, binary, BULK_EXPORT_PASSWORDS)));
+					exported += slice.size();
+				}
+			}
+			while(!pending.isEmpty()) {
+				out.write(pending.poll().get());
+			}
+		} finally {
+			workers.shutdownNow();
+		}
+		return exported;
+	}
+	
+	// a name the admin client sent, resolved inside BULK_DIRECTORY; absolute paths and .. are refused
+	private Path resolveBulkFile(String name) throws IOException {
+		Path directory = Paths.get(BULK_DIRECTORY).toAbsolutePath().normalize();
+		Path file;
+		try {
+			file = Paths.get(name);
+		} catch(InvalidPathException e) {
+			throw new IOException(String.format("'%s' is not a file name", name));
+		}
+		if(name.isEmpty() || file.isAbsolute() || name.contains("..")) {
+			throw new IOException(String.format("'%s' must name a file inside the bulk directory %s", name, directory));
+		}
+		Path resolved = directory.resolve(file).normalize();
+		if(!resolved.startsWith(directory) || resolved.equals(directory)) {
+			throw new IOException(String.format("'%s' must name a file inside the bulk directory %s", name, directory));
+		}
+		return resolved;
+	}
+	
+	private ThreadPoolExecutor newBulkWorkers(String job) {
+		int threads = Integer.getInteger("gameserver.bulk.threads", Runtime.getRuntime().availableProcessors());
+		AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * 2), runnable -> {
+			Thread thread = new Thread(runnable, String.format("%s-%s-%d", this.serverLabel, job, threadCount.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	// END OF BULK IMPORT AND EXPORT
+	
+	private String addPlayerToServer(Player p) {
+		return addPlayerAccount(p.getfName(), p.getlName(), p.getuName(), p.getPassword(), p.getIpAddress(), p.getAge(), PlayerEvent.Type.TRANSFERRED_IN);
+	}
+	
+	private void threadSafeRemovePlayer(Player playerToSuspend, Character firstCharOfPlayer) throws PlayerRemoveException {
+		if(this.playerHash.get(firstCharOfPlayer).contains(playerToSuspend)) {
+			this.playerHash.get(firstCharOfPlayer).remove(playerToSuspend);
+			playerIndexes.remove(playerToSuspend);
+		} else {
+			throw new PlayerRemoveException();
+		}
+	}
+	
+	// with playerHashTransactionLock held
+	private void removeStoredPlayers(CopyOnWriteArrayList<Player> players, Predicate<Player> filter) {
+		List<Player> removed = players.stream().filter(filter).collect(Collectors.toList());
+		players.removeAll(removed);
+		removed.forEach(playerIndexes::remove);
+	}
+	
+	// NETWORK UTILS 
+	
+	private void runRegionUdpServer(int udpPort) {
 		ExecutorService executorService = Executors.newSingleThreadExecutor();
 		
     	executorService.execute((Runnable) ()->{
-    	  String log = String.format("Starting UDP Server for %s region on port %d ...",gameServerLocation, INT_UDP_PORT);
+    	  String log = String.format("Starting UDP Server for %s region on port %d ...", serverLabel, udpPort);
 		  System.out.println(log);
 		  serverLog("Admin",log);
-		  listenForServerRequests();
+		  listenForServerRequests(udpPort);
 		});
 		
 	}
 	
-	private void listenForServerRequests() {
+	private void listenForServerRequests(int udpPort) {
 		// UDP server awaiting requests from other game servers
 		DatagramSocket aSocket = null;
 		String loggingEntity = "Admin";
 		try{
-	    	aSocket = new DatagramSocket(INT_UDP_PORT);
+	    	aSocket = new DatagramSocket(udpPort);
+	    	LocalPeers.register(this.shard.getHost(), udpPort, localEndpoint);
 			byte[] buffer = new byte[65508];
  			while(true) {
  				DatagramPacket request = new DatagramPacket(buffer, buffer.length);
   				aSocket.receive(request); 
   				String toSend;
   				DatagramPacket reply; 
-  				String stringRequest = new String(request.getData(), 0, 9, StandardCharsets.UTF_8);
-  				// get status request
-  				if(stringRequest.equals("getStatus")) {
-	  				toSend = this.getPlayerCounts();
-	  				loggingEntity = "Admin";
-  				} 
-  				// transfer player request
-  				else {
-  					Player playerToAdd = deserializePlayer(request.getData());
-  					toSend = addPlayerToServer(playerToAdd);
-  					loggingEntity = playerToAdd.getuName();
+  				// one bad or failing request is answered with an error, it never stops the listener
+  				try {
+	  				String stringRequest = new String(request.getData(), 0, 9, StandardCharsets.UTF_8);
+	  				// get status request
+	  				if(stringRequest.equals(STATUS_REQUEST)) {
+		  				toSend = handlePeerMessage(STATUS_REQUEST);
+	  				} 
+	  				// transfer player request
+	  				else {
+	  					Object message = this.backup ? null : deserializeMessage(request.getData());
+	  					if(message instanceof ShardCommand) {
+	  						// split phases can run for a while, answer them off the listener thread
+	  						DatagramSocket replySocket = aSocket;
+	  						InetAddress replyAddress = request.getAddress();
+	  						int replyPort = request.getPort();
+	  						transferExecutor.execute(() -> {
+	  							byte[] result = handlePeerMessageOrError(message, "Admin").getBytes();
+	  							try {
+	  								replySocket.send(new DatagramPacket(result, result.length, replyAddress, replyPort));
+	  							} catch (IOException e) {
+	  								serverLog(e.getMessage(), "Admin");
+	  							}
+	  						});
+	  						continue;
+	  					}
+	  					loggingEntity = senderOf(message);
+	  					toSend = handlePeerMessageOrError(message, loggingEntity);
+	  				}
+  				} catch (TransferAccountException e) {
+  					toSend = String.format("Failed to read request from %s:%d -- %s", request.getAddress().getHostAddress(), request.getPort(), e.getMessage());
+  					serverLog(toSend, loggingEntity);
   				}
   				reply = new DatagramPacket(toSend.getBytes(), toSend.getBytes().length, request.getAddress(), request.getPort());
     			aSocket.send(reply);
@@ -544,65 +2094,126 @@ public class GameServerServant extends GameServerPOA {
 		} catch (IOException e) {
 			System.out.println("IO Exception: " + e.getMessage());
 			serverLog(e.getMessage(), loggingEntity);
-		} catch (TransferAccountException e) {
-			System.out.println("Transfer Account Exception: " + e.getMessage());
-			serverLog(e.getMessage(), loggingEntity);
 		} finally {
+			LocalPeers.unregister(this.shard.getHost(), udpPort, localEndpoint);
 			if(aSocket != null) aSocket.close();
 		}
 	}
 	
-	private byte[] serializePlayerObject(Player playerToTransfer) throws TransferAccountException {
-		byte[] serializedPlayer = null;
+	// a message from another servant, received over UDP or called directly by one hosted in the same JVM
+	private String handlePeerMessage(Object message) {
+		if(STATUS_REQUEST.equals(message)) return this.getPlayerCounts();
+		// a backup only answers status requests until it is promoted
+		if(this.backup) return String.format("%s is a read-only backup", this.serverLabel);
+		if(message instanceof ShardCommand) return handleShardCommand((ShardCommand) message);
+		if(message instanceof UsernameDigest) return handleUsernameDigest((UsernameDigest) message);
+		if(message instanceof ShardSync) return applyShardSync((ShardSync) message);
+		if(message instanceof TransferBatch) {
+			TransferBatch batch = (TransferBatch) message;
+			return batch.isAtomic() ? applyMigrationBatch(batch) : applyTransferBatch(batch);
+		}
+		return addPlayerToServer((Player) message);
+	}
+	
+	private String handlePeerMessageOrError(Object message, String sender) {
+		try {
+			return handlePeerMessage(message);
+		} catch (RuntimeException e) {
+			String err = String.format("Failed to handle %s from %s -- %s", message == null ? "request" : message.getClass().getSimpleName(), sender, e);
+			serverLog(err, sender);
+			return err;
+		}
+	}
+	
+	private String senderOf(Object message) {
+		if(message instanceof UsernameDigest) return "Admin@" + ((UsernameDigest) message).getSourceShard();
+		if(message instanceof ShardSync) return "Admin@" + ((ShardSync) message).getSourceShard();
+		if(message instanceof TransferBatch) return "Admin@" + ((TransferBatch) message).getSourceRegion();
+		if(message instanceof Player) return ((Player) message).getuName();
+		return "Admin";
+	}
+	
+	private byte[] serializeMessage(Serializable message) throws TransferAccountException {
 		try {
 			ByteArrayOutputStream tempByteOutputStream = new ByteArrayOutputStream();
 			ObjectOutputStream tempObjectOutputStream = new ObjectOutputStream(tempByteOutputStream);
-			tempObjectOutputStream.writeObject(playerToTransfer);
-			serializedPlayer = tempByteOutputStream.toByteArray();
+			tempObjectOutputStream.writeObject(message);
+			return tempByteOutputStream.toByteArray();
 		} catch (IOException e) {
 			throw new TransferAccountException();
 		}
-		return serializedPlayer;
 	}
 
-	private Player deserializePlayer(byte[] player) throws TransferAccountException {
-		ByteArrayInputStream bis = new ByteArrayInputStream(player);
+	// a serialized Player for a single transfer, a TransferBatch, or a region split message
+	private Object deserializeMessage(byte[] message) throws TransferAccountException {
+		ByteArrayInputStream bis = new ByteArrayInputStream(message);
 		ObjectInput in;
-		Player playerToReturn = null;
+		Object messageToReturn = null;
 		try {
 			in = new ObjectInputStream(bis);
-			playerToReturn = (Player) in.readObject();
+			messageToReturn = in.readObject();
 		} catch (IOException | ClassNotFoundException e) {
 			throw new TransferAccountException();
 		}
-		return playerToReturn;
+		return messageToReturn;
 	}
 
-	private String makeUDPStatusRequestToExternalServer(int serverPort) {
+	// status requests are idempotent, so one with no reply after the peer's recent p95 round trip is sent again
+	// on the same socket and whichever reply arrives first is used, until the adaptive timeout runs out
+	private String makeUDPStatusRequestToExternalServer(Shard peer, int udpPort, int maxTimeoutInMillis) {
 		DatagramSocket aSocket = null;
-		String reqOp = "getStatus";
+		String reqOp = STATUS_REQUEST;
+		PeerMetrics peerMetrics = this.metrics.peer(udpPort == peer.getBackupUdpPort() ? peer.getLabel() + "-backup" : peer.getLabel());
+		LocalPeers.Endpoint localPeer = LocalPeers.find(peer.getHost(), udpPort);
+		if(localPeer != null) {
+			String succ = callLocalPeer(localPeer, peerMetrics, STATUS_REQUEST);
+			serverLog(succ, "Admin");
+			return succ;
+		}
+		int timeoutInMillis = peerMetrics.timeoutInMillis(STATUS_TIMEOUT_FLOOR_IN_MILLIS, maxTimeoutInMillis);
+		int hedgeDelayInMillis = peerMetrics.hedgeDelayInMillis(STATUS_HEDGE_FLOOR_IN_MILLIS, timeoutInMillis, STATUS_MAX_HEDGES);
+		long sentAt = System.nanoTime();
+		long deadline = sentAt + TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
 		try {
 			aSocket = new DatagramSocket();    
-			aSocket.setSoTimeout(SERVER_TIMEOUT_IN_MILLIS); 
 			byte [] m = reqOp.getBytes();
-			InetAddress aHost = InetAddress.getByName("127.0.0.1");		                                                 
+			InetAddress aHost = InetAddress.getByName(peer.getHost());
 			DatagramPacket request =
-			 	new DatagramPacket(m, reqOp.length(), aHost, serverPort);
+			 	new DatagramPacket(m, reqOp.length(), aHost, udpPort);
 			aSocket.send(request);			                        
 			byte[] buffer = new byte[1000];
 			DatagramPacket reply = new DatagramPacket(buffer, buffer.length);	
-			aSocket.receive(reply);
-			String succ = new String(reply.getData());	
+			for(int hedges = 0; ; hedges++) {
+				long remainingInMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if(remainingInMillis <= 0) throw new SocketTimeoutException();
+				boolean mayHedge = hedges < STATUS_MAX_HEDGES;
+				aSocket.setSoTimeout((int) (mayHedge ? Math.min(hedgeDelayInMillis, remainingInMillis) : remainingInMillis));
+				try {
+					aSocket.receive(reply);
+					break;
+				} catch (SocketTimeoutException e) {
+					if(!mayHedge) throw e;
+					aSocket.send(request);
+					peerMetrics.recordHedge();
+				}
+			}
+			// from the first send: the reply may answer any of the requests, and timing it from a later one would
+			// cut short exactly the slow round trips the timeout and hedge delay are derived from
+			peerMetrics.recordSuccess(System.nanoTime() - sentAt);
+			String succ = new String(reply.getData(), 0, reply.getLength());	
 			serverLog(succ, "Admin");
 			return succ;
 		} catch (SocketTimeoutException e) {
-			String timeOut = String.format("Request to server on port %d has timed out!", serverPort);
+			peerMetrics.recordTimeout();
+			String timeOut = String.format("Request to %s server on port %d has timed out after %d ms!", peer.getLabel(), udpPort, timeoutInMillis);
 			serverLog(timeOut, "Admin");
 			return timeOut;
 		} catch (SocketException e){
+			peerMetrics.recordError();
 			serverLog(e.getMessage(), "Admin");
 			return "Socket Exception: " + e.getMessage();
 		} catch (IOException e) {
+			peerMetrics.recordError();
 			serverLog(e.getMessage(), "Admin");
 			return "IO Exception: " + e.getMessage();
 		} finally {
@@ -610,24 +2221,19 @@ public class GameServerServant extends GameServerPOA {
 		}
 	}
 	
-	private String makeUDPTransferRequestToExternalServer(int serverPort, byte[] serializedPlayer, String playerUsername) {
-		DatagramSocket aSocket = null;
+	// transfers are not re-sent, their timeout only adapts between a floor well above any healthy round trip and the fixed ceiling
+	private String makeUDPTransferRequestToExternalServer(Shard peer, Serializable message, String playerUsername) {
+		int timeoutInMillis = this.metrics.peer(peer.getLabel()).timeoutInMillis(TRANSFER_TIMEOUT_FLOOR_IN_MILLIS, SERVER_TIMEOUT_IN_MILLIS);
+		return makeUDPTransferRequestToExternalServer(peer, message, playerUsername, timeoutInMillis);
+	}
+	
+	private String makeUDPTransferRequestToExternalServer(Shard peer, Serializable message, String playerUsername, int timeoutInMillis) {
 		try {
-			aSocket = new DatagramSocket();    
-			aSocket.setSoTimeout(SERVER_TIMEOUT_IN_MILLIS); 
-			byte [] m = serializedPlayer;
-			InetAddress aHost = InetAddress.getByName("127.0.0.1");		                                                 
-			DatagramPacket request =
-			 	new DatagramPacket(m, m.length, aHost, serverPort);
-			aSocket.send(request);			                        
-			byte[] buffer = new byte[1000];
-			DatagramPacket reply = new DatagramPacket(buffer, buffer.length);	
-			aSocket.receive(reply);
-			String succ = new String(reply.getData());	
+			String succ = exchangeMessage(peer, message, timeoutInMillis);
 			serverLog(succ, playerUsername);
 			return succ;
 		} catch (SocketTimeoutException e) {
-			String timeOut = String.format("Request to server on port %d has timed out!", serverPort);
+			String timeOut = String.format("Request to %s server on port %d has timed out after %d ms!", peer.getLabel(), peer.getUdpPort(), timeoutInMillis);
 			serverLog(timeOut, playerUsername);
 			return timeOut;
 		} catch (SocketException e){
@@ -636,100 +2242,125 @@ public class GameServerServant extends GameServerPOA {
 		} catch (IOException e) {
 			serverLog(e.getMessage(), playerUsername);
 			return "IO Exception: " + e.getMessage();
+		}
+	}
+	
+	// one request and its reply with a peer's primary, recorded in the peer's metrics but not logged;
+	// a peer hosted in this JVM is called directly, and only a peer in another process gets a datagram
+	private String exchangeMessage(Shard peer, Serializable message, int timeoutInMillis) throws IOException {
+		PeerMetrics peerMetrics = this.metrics.peer(peer.getLabel());
+		LocalPeers.Endpoint localPeer = LocalPeers.find(peer.getHost(), peer.getUdpPort());
+		if(localPeer != null) return callLocalPeer(localPeer, peerMetrics, message);
+		
+		byte[] payload;
+		try {
+			payload = serializeMessage(message);
+		} catch(TransferAccountException e) {
+			peerMetrics.recordError();
+			throw new IOException(String.format("Could not serialize %s for %s", message.getClass().getSimpleName(), peer.getLabel()));
+		}
+		DatagramSocket aSocket = null;
+		long sentAt = System.nanoTime();
+		try {
+			aSocket = new DatagramSocket();    
+			aSocket.setSoTimeout(timeoutInMillis); 
+			byte [] m = payload;
+			InetAddress aHost = InetAddress.getByName(peer.getHost());
+			DatagramPacket request =
+			 	new DatagramPacket(m, m.length, aHost, peer.getUdpPort());
+			aSocket.send(request);			                        
+			byte[] buffer = new byte[65508];
+			DatagramPacket reply = new DatagramPacket(buffer, buffer.length);	
+			aSocket.receive(reply);
+			peerMetrics.recordSuccess(System.nanoTime() - sentAt);
+			return new String(reply.getData(), 0, reply.getLength());	
+		} catch (SocketTimeoutException e) {
+			peerMetrics.recordTimeout();
+			throw e;
+		} catch (IOException e) {
+			peerMetrics.recordError();
+			throw e;
 		} finally {
 			if(aSocket != null) aSocket.close();
 		}
 	}
 	
+	private String callLocalPeer(LocalPeers.Endpoint localPeer, PeerMetrics peerMetrics, Object message) {
+		long sentAt = System.nanoTime();
+		String reply = localPeer.handlePeerMessage(LocalPeers.copyOf(message));
+		peerMetrics.recordSuccess(System.nanoTime() - sentAt);
+		localPeerCalls.increment();
+		return reply;
+	}
+	
+	// periodic summary of the requests sent to each peer, so a degraded link shows up in the server log
+	private void logPeerMetrics() {
+		String summary = this.metrics.summarizePeers(this.serverLabel);
+		if(!summary.isEmpty()) serverLog(summary, "Admin");
+	}
+	
 	// END OF NETWORK UTILS
 	
-	private void setExternalPorts() throws UnknownServerRegionException {
-		switch(this.gameServerLocation) {
-			case "NA": {
-				INT_UDP_PORT = Integer.valueOf(EXT_UDP_PORTS.get(0));
-				EXT_UDP_PORTS.remove(0);
-				break;
-			}
-			case "EU": {
-				INT_UDP_PORT = Integer.valueOf(EXT_UDP_PORTS.get(1));
-				EXT_UDP_PORTS.remove(1);
-				break;
-			}
-			case "AS": {
-				INT_UDP_PORT = Integer.valueOf(EXT_UDP_PORTS.get(2));
-				EXT_UDP_PORTS.remove(2);
-				break;
+	private String getRegionDefaultIP() {
+		return region.getDefaultIp();
+	}
+	
+	// runs a player operation unless its username belongs to another shard, whose name is then returned instead
+	private String withOwnership(String uName, String ipAddress, Supplier<String> operation) {
+		if(this.backup) {
+			String errBackup = String.format("%s is a read-only backup of %s", this.serverLabel, this.shard.getServerName());
+			serverLog(errBackup, ipAddress);
+			return errBackup;
+		}
+		try {
+			ownershipLock.readLock().lock(); // LOCK
+			
+			if(!ownsUsername(uName)) {
+				String errShard = String.format("Player with username '%s' belongs to %s", uName, ownerOf(uName).getServerName());
+				serverLog(errShard, ipAddress);
+				return errShard;
 			}
-			default:
-				throw new UnknownServerRegionException();
+			return operation.get();
+		} finally {
+			ownershipLock.readLock().unlock(); // UNLOCK
 		}
 	}
-
-	private String getRegionDefaultIP() throws UnknownServerRegionException {
-		switch(gameServerLocation) {
-			case "NA":
-				return "132.168.2.22";
-			case "EU":
-				return "93.168.2.22";
-			case "AS":
-				return "182.168.2.22";
-			default:
-				throw new UnknownServerRegionException();
-		}
+	
+	private Player findPlayer(String uName) {
+		CopyOnWriteArrayList<Player> players = this.playerHash.get(uName.charAt(0));
+		if(players == null) return null;
+		return players.stream().filter(player -> player.getuName().equals(uName)).findAny().orElse(null);
 	}
 	
-	private int getRegionUDPServerPort(String ipAddress) {
-		if(ipAddress.startsWith("132")) {
-			return getUDPServerPort("NA");
-		} else if (ipAddress.startsWith("93")) {
-			return getUDPServerPort("EU");
-		} else if (ipAddress.startsWith("182")) {
-			return getUDPServerPort("AS");
-		} else return -1;
+	private boolean ownsUsername(String uName) {
+		return uName.equals("Admin") || ownerOf(uName).getIndex() == shard.getIndex();
 	}
-
-	private int getUDPServerPort(String region) {
-		int port = -1;
-		switch(region) {
-			case "NA": {
-				port = EXT_UDP_PORTS.get(0);
-				break;
-			} 
-			case "EU": {
-				if(gameServerLocation.equals("NA")) {
-					port = EXT_UDP_PORTS.get(0);
-				} else {
-					port = EXT_UDP_PORTS.get(1);
-				}
-				break;
-			}
-			case "AS": {
-				if(gameServerLocation.equals("NA")) {
-					port = EXT_UDP_PORTS.get(1);
-				} else {
-					port = EXT_UDP_PORTS.get(1);
-				}
-				break;
-			}
+	
+	private Shard ownerOf(String uName) {
+		Shard owner = region.getShardFor(uName);
+		ConsistentHashRing previousRing = this.joiningFrom;
+		if(owner.getIndex() == shard.getIndex() && previousRing != null) {
+			int previousOwner = previousRing.shardFor(uName);
+			if(!this.handedOverShards.contains(previousOwner)) return new Shard(region, previousOwner);
 		}
-		return port;
+		return owner;
+	}
+	
+	private boolean isLocalShard(Shard other) {
+		return other.getRegion().getId().equals(this.gameServerLocation) && other.getIndex() == this.shard.getIndex();
 	}
 
 	private void serverLog(String logStatement, String ipAddress) {
-		 DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");  
-		 LocalDateTime tStamp = LocalDateTime.now(); 
-		 String writeString = String.format("[%s] Response to %s -- %s", dtf.format(tStamp), ipAddress, logStatement);
+		 if(!textLog) return;
+		 long now = System.currentTimeMillis();
+		 LocalDateTime tStamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()); 
+		 String writeString = String.format("[%s] Response to %s -- %s", LOG_TIMESTAMP.format(tStamp), ipAddress, logStatement);
 		 try{
 			 
 			 loggerLock.lock(); // LOCK
 			 
-			 File file = new File(String.format("server_logs/%s-server.log", this.gameServerLocation));
-			 file.getParentFile().mkdirs();
-			 FileWriter fw = new FileWriter(file, true);
-			 BufferedWriter logger = new BufferedWriter(fw);
-			 logger.write(writeString);
-			 logger.newLine();
-			 logger.close();
+			 if(logSegments == null) logSegments = new LogSegments(this.serverLabel);
+			 logSegments.append(now, writeString);
 			 
 		} catch (IOException e) {
 			// can't really log an error while logging
@@ -739,12 +2370,46 @@ public class GameServerServant extends GameServerPOA {
 		}
 	}
 
+	// a segment that has reached its time limit is indexed even if no further line arrives
+	private void sealDueLogSegment() {
+		try {
+			loggerLock.lock(); // LOCK
+			if(logSegments != null) logSegments.sealIfDue(System.currentTimeMillis());
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			loggerLock.unlock(); // UNLOCK
+		}
+	}
+
 	// CORBA UTILS 
 	
 	public void setORB(ORB orb) {
 		this.orb = orb; 
 	}
 	
+	// binds a standby shard once a split has handed it its players, or a backup once it is promoted
+	public void setActivation(Runnable activation) {
+		this.activation = activation;
+	}
+	
+	public MetricsRegistry getMetrics() {
+		return this.metrics;
+	}
+	
+	// null unless the binary audit log is on
+	public AuditLog getAuditLog() {
+		return this.auditLog;
+	}
+	
+	public String getServerLabel() {
+		return this.serverLabel;
+	}
+	
+	public boolean isStandby() {
+		return this.standby;
+	}
+	
 	public void shutdown() {
 		orb.shutdown(false);
 	}
@@ -0,0 +1,151 @@
+package servers;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import corbautils.GameServerOperations;
+import corbautils.GameServerPOA;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+
+// The servant the ORB dispatches to: times every GameServer operation and counts the replies
+// that carry an error message or a busy server before handing the call to the game server itself
+public class InstrumentedGameServer extends GameServerPOA {
+
+	private static final Predicate<String> SUCCESSFUL = reply -> reply.startsWith("Successfully");
+	private static final Predicate<String> ADMIN_ACCEPTED = reply -> !reply.startsWith("Admin with that password") && !reply.startsWith("Incorrect credentials");
+
+	private final GameServerOperations gameServer;
+	private final MetricsRegistry metrics;
+	private final AuditLog auditLog;
+
+	// every call is also recorded in the binary audit log, unless it is null
+	public InstrumentedGameServer(GameServerOperations gameServer, MetricsRegistry metrics, AuditLog auditLog) {
+		this.gameServer = gameServer;
+		this.metrics = metrics;
+		this.auditLog = auditLog;
+	}
+
+	private String time(String operation, String uName, String ipAddress, Predicate<String> accepted, Supplier<String> call) {
+		OperationMetrics operationMetrics = metrics.operation(operation);
+		long start = System.nanoTime();
+		try {
+			String reply = call.get();
+			long elapsed = System.nanoTime() - start;
+			boolean busy = reply.startsWith(ServantDispatcher.BUSY_REPLY);
+			boolean ok = accepted.test(reply) && !busy;
+			operationMetrics.record(elapsed, ok);
+			if(auditLog != null) {
+				auditLog.record(operation, ok ? AuditLog.Result.OK : busy ? AuditLog.Result.BUSY 
+						: reply.startsWith(RateLimiter.REJECTED_REPLY) ? AuditLog.Result.RATE_LIMITED : AuditLog.Result.REJECTED, uName, ipAddress, elapsed);
+			}
+			return reply;
+		} catch(RuntimeException e) {
+			long elapsed = System.nanoTime() - start;
+			operationMetrics.recordFailure(elapsed);
+			if(auditLog != null) auditLog.record(operation, AuditLog.Result.FAILED, uName, ipAddress, elapsed);
+			throw e;
+		}
+	}
+
+	@Override
+	public String createPlayerAccount(String fName, String lName, String uName, String password, String ipAddress, int age) {
+		return time("createPlayerAccount", uName, ipAddress, SUCCESSFUL, () -> gameServer.createPlayerAccount(fName, lName, uName, password, ipAddress, age));
+	}
+
+	@Override
+	public String playerSignIn(String uName, String password, String ipAddress) {
+		return time("playerSignIn", uName, ipAddress, SUCCESSFUL, () -> gameServer.playerSignIn(uName, password, ipAddress));
+	}
+
+	@Override
+	public String playerSignOut(String uName, String ipAddress) {
+		return time("playerSignOut", uName, ipAddress, SUCCESSFUL, () -> gameServer.playerSignOut(uName, ipAddress));
+	}
+
+	@Override
+	public String adminSignIn(String uName, String password, String ipAddress) {
+		return time("adminSignIn", uName, ipAddress, SUCCESSFUL, () -> gameServer.adminSignIn(uName, password, ipAddress));
+	}
+
+	@Override
+	public String adminSignOut(String uName, String ipAddress) {
+		return time("adminSignOut", uName, ipAddress, SUCCESSFUL, () -> gameServer.adminSignOut(uName, ipAddress));
+	}
+
+	@Override
+	public String getPlayerStatus(String uName, String password, String ipAddress) {
+		return time("getPlayerStatus", uName, ipAddress, reply -> ADMIN_ACCEPTED.test(reply) && !reply.contains("ERROR"), 
+				() -> gameServer.getPlayerStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String transferAccount(String uName, String password, String oldIpAddress, String newIpAddress) {
+		return time("transferAccount", uName, oldIpAddress, reply -> reply.startsWith("Transfer #"), () -> gameServer.transferAccount(uName, password, oldIpAddress, newIpAddress));
+	}
+
+	@Override
+	public String getTransferStatus(String uName, String password, String ipAddress) {
+		return time("getTransferStatus", uName, ipAddress, reply -> reply.startsWith("Transfer #"), () -> gameServer.getTransferStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String suspendAccount(String uName, String password, String ipAddress, String uNameToSuspend) {
+		return time("suspendAccount", uName, ipAddress, SUCCESSFUL, () -> gameServer.suspendAccount(uName, password, ipAddress, uNameToSuspend));
+	}
+
+	@Override
+	public String migratePlayers(String uName, String password, String ipAddress, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly, int batchSize) {
+		return time("migratePlayers", uName, ipAddress, reply -> reply.startsWith("Migration #"), 
+				() -> gameServer.migratePlayers(uName, password, ipAddress, targetRegion, uNamePrefix, ipSubnet, offlineOnly, batchSize));
+	}
+
+	@Override
+	public String getMigrationStatus(String uName, String password, String ipAddress) {
+		return time("getMigrationStatus", uName, ipAddress, ADMIN_ACCEPTED, () -> gameServer.getMigrationStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String splitRegion(String uName, String password, String ipAddress) {
+		return time("splitRegion", uName, ipAddress, reply -> reply.startsWith("Split #"), () -> gameServer.splitRegion(uName, password, ipAddress));
+	}
+
+	@Override
+	public String getSplitStatus(String uName, String password, String ipAddress) {
+		return time("getSplitStatus", uName, ipAddress, ADMIN_ACCEPTED, () -> gameServer.getSplitStatus(uName, password, ipAddress));
+	}
+
+	@Override
+	public String promoteBackup(String uName, String password, String ipAddress) {
+		return time("promoteBackup", uName, ipAddress, SUCCESSFUL, () -> gameServer.promoteBackup(uName, password, ipAddress));
+	}
+
+	@Override
+	public String getServerMetrics(String uName, String password, String ipAddress) {
+		return time("getServerMetrics", uName, ipAddress, ADMIN_ACCEPTED, () -> gameServer.getServerMetrics(uName, password, ipAddress));
+	}
+
+	@Override
+	public String listPlayers(String uName, String password, String ipAddress, String cursor, int pageSize, String status, String uNamePrefix) {
+		return time("listPlayers", uName, ipAddress, reply -> reply.contains(PlayerListing.NEXT_CURSOR) || reply.contains(PlayerListing.END_OF_LISTING), 
+				() -> gameServer.listPlayers(uName, password, ipAddress, cursor, pageSize, status, uNamePrefix));
+	}
+
+	@Override
+	public String findPlayers(String uName, String password, String ipAddress, String ipSubnet, String status, int minAge, int maxAge, boolean countOnly) {
+		return time("findPlayers", uName, ipAddress, reply -> ADMIN_ACCEPTED.test(reply) && !reply.startsWith("Invalid"), 
+				() -> gameServer.findPlayers(uName, password, ipAddress, ipSubnet, status, minAge, maxAge, countOnly));
+	}
+
+	@Override
+	public String importPlayers(String uName, String password, String ipAddress, String path) {
+		return time("importPlayers", uName, ipAddress, reply -> ADMIN_ACCEPTED.test(reply) && !reply.startsWith("Could not"), 
+				() -> gameServer.importPlayers(uName, password, ipAddress, path));
+	}
+
+	@Override
+	public String exportPlayers(String uName, String password, String ipAddress, String path) {
+		return time("exportPlayers", uName, ipAddress, reply -> ADMIN_ACCEPTED.test(reply) && !reply.startsWith("Could not"), 
+				() -> gameServer.exportPlayers(uName, password, ipAddress, path));
+	}
+}
@@ -0,0 +1,68 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import models.Player;
+import models.ShardSync;
+import models.TransferBatch;
+import topology.Shard;
+
+// The servants hosted in this JVM, by the host and UDP port they answer their peers on. A message to one of
+// them is handed over as a method call on the sender's thread instead of travelling as a serialized datagram,
+// while servants in other processes are still reached over UDP. -Dgameserver.localPeers=off sends every
+// message over UDP, as when each region runs in its own process.
+public final class LocalPeers {
+
+	public interface Endpoint {
+		String handlePeerMessage(Object message);
+	}
+
+	private static final boolean ENABLED = !System.getProperty("gameserver.localPeers", "on").equals("off");
+	private static final ConcurrentHashMap<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+	private LocalPeers() {
+	}
+
+	public static void register(String host, int udpPort, Endpoint endpoint) {
+		ENDPOINTS.put(host + ":" + udpPort, endpoint);
+	}
+
+	public static void unregister(String host, int udpPort, Endpoint endpoint) {
+		ENDPOINTS.remove(host + ":" + udpPort, endpoint);
+	}
+
+	// null when the peer is not hosted here, or direct calls are off
+	public static Endpoint find(String host, int udpPort) {
+		return ENABLED ? ENDPOINTS.get(host + ":" + udpPort) : null;
+	}
+
+	public static boolean hosts(Shard shard) {
+		return find(shard.getHost(), shard.getUdpPort()) != null;
+	}
+
+	// a receiver may store the players it is sent, so it gets its own copies as it would from deserializing them
+	public static Object copyOf(Object message) {
+		if(message instanceof TransferBatch) {
+			TransferBatch batch = (TransferBatch) message;
+			return new TransferBatch(batch.getSourceRegion(), batch.getBatchId(), batch.isAtomic(), copyOf(batch.getPlayers()));
+		}
+		if(message instanceof ShardSync) {
+			ShardSync sync = (ShardSync) message;
+			return new ShardSync(sync.getSourceShard(), sync.getSourceIndex(), copyOf(sync.getPlayers()),
+					new ArrayList<>(sync.getRemovedUsernames()), sync.isHandover());
+		}
+		if(message instanceof Player) {
+			return new Player((Player) message);
+		}
+		return message;
+	}
+
+	private static ArrayList<Player> copyOf(ArrayList<Player> players) {
+		ArrayList<Player> copies = new ArrayList<>(players.size());
+		for(Player player : players) {
+			copies.add(new Player(player));
+		}
+		return copies;
+	}
+}
@@ -0,0 +1,328 @@
+package servers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// A servant's text log split into segments under server_logs/<label>/, numbered <label>-000001.log and up.
+// A segment is sealed once it holds -Dgameserver.log.segmentMegabytes (64) or has been written for
+// -Dgameserver.log.segmentMinutes (60), and gets an index next to it: its first and last timestamp, the
+// offset of an entry every INDEX_INTERVAL_IN_BYTES and a Bloom filter of the words its entries contain of at
+// least MIN_INDEXED_WORD_LENGTH characters, which takes in usernames and IP addresses. The filter is filled as
+// entries are appended and sized for the segment's limit, so indexing keeps no words of its own. A query reads
+// the indexes and only seeks into the segments that cover its time window and might mention its user.
+// The servant also calls sealIfDue on a timer, so a quiet server's segment is indexed on time.
+// -Dgameserver.log.keepSegments removes the oldest segments beyond that many. Segments a crash left without
+// an index are indexed on the next start. Not thread safe: the servant appends under its logger lock.
+public class LogSegments {
+
+	public static final String LINE_TIMESTAMP_PATTERN = "yyyy/MM/dd HH:mm:ss";
+	private static final DateTimeFormatter LINE_TIMESTAMP = DateTimeFormatter.ofPattern(LINE_TIMESTAMP_PATTERN);
+	private static final int INDEX_MAGIC = 0x47534c49; // GSLI
+	private static final int INDEX_INTERVAL_IN_BYTES = 1 << 16;
+	private static final long OUT_OF_ORDER_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+	// the shortest username is Admin; timestamps, counts and other short runs are left out of the filter
+	private static final int MIN_INDEXED_WORD_LENGTH = 5;
+	private static final int BYTES_PER_INDEXED_WORD = 256;
+	private static final int MAX_INDEXED_WORDS = 1 << 22;
+
+	private final File directory;
+	private final String label;
+	private final long maxBytes = Long.getLong("gameserver.log.segmentMegabytes", 64) << 20;
+	private final long maxMillis = TimeUnit.MINUTES.toMillis(Long.getLong("gameserver.log.segmentMinutes", 60));
+	private final int keepSegments = Integer.getInteger("gameserver.log.keepSegments", 0);
+	private int sequence;
+	private FileOutputStream out;
+	private File current;
+	private long openedAt;
+	private Indexer indexer;
+
+	public LogSegments(String label) {
+		this.label = label;
+		this.directory = new File("server_logs", label);
+		directory.mkdirs();
+		for(File segment : segments(directory)) {
+			sequence = Math.max(sequence, sequenceOf(segment));
+			if(!indexFile(segment).exists()) reindex(segment);
+		}
+	}
+
+	public void append(long timestamp, String entry) throws IOException {
+		sealIfDue(timestamp);
+		if(out == null) open(timestamp);
+		byte[] bytes = (entry + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+		// indexed to the second, as the lines themselves are stamped
+		indexer.add(timestamp - Math.floorMod(timestamp, 1000L), entry);
+		out.write(bytes);
+		indexer.size += bytes.length;
+	}
+
+	private void open(long timestamp) throws IOException {
+		current = new File(directory, String.format("%s-%06d.log", label, ++sequence));
+		out = new FileOutputStream(current, true);
+		openedAt = timestamp;
+		indexer = new Indexer(maxBytes);
+	}
+
+	public void sealIfDue(long now) throws IOException {
+		if(out != null && (indexer.size >= maxBytes || now - openedAt >= maxMillis)) seal();
+	}
+
+	private void seal() throws IOException {
+		out.close();
+		out = null;
+		indexer.write(indexFile(current));
+		if(keepSegments <= 0) return;
+		File[] segments = segments(directory);
+		for(int i = 0; i < segments.length - keepSegments; i++) {
+			indexFile(segments[i]).delete();
+			segments[i].delete();
+		}
+	}
+
+	// a segment written before a crash, indexed from its lines' own timestamps
+	private void reindex(File segment) {
+		Indexer recovered = new Indexer(segment.length());
+		try {
+			readEntries(segment, 0, Long.MAX_VALUE, entry -> {
+				recovered.size = entry.offset;
+				recovered.add(entry.timestamp, entry.text);
+			});
+			recovered.size = segment.length();
+			recovered.write(indexFile(segment));
+		} catch(IOException e) {
+			System.out.println(String.format("%s: could not index log segment %s -- %s", label, segment.getName(), e.getMessage()));
+		}
+	}
+
+	// the segment's entries so far; offsets and timestamps are only added for entries that start a stretch
+	private static class Indexer implements WordRange {
+		private long size;
+		private long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+		private long[] timestamps = new long[64], offsets = new long[64];
+		private int entries;
+		private long nextIndexAt;
+		private final UsernameFilter.Bits words;
+
+		Indexer(long expectedBytes) {
+			this.words = new UsernameFilter.Bits(0, (int) Math.min(MAX_INDEXED_WORDS, expectedBytes / BYTES_PER_INDEXED_WORD));
+		}
+
+		void add(long timestamp, String entry) {
+			first = Math.min(first, timestamp);
+			last = Math.max(last, timestamp);
+			if(size >= nextIndexAt) {
+				if(entries == timestamps.length) {
+					timestamps = Arrays.copyOf(timestamps, entries * 2);
+					offsets = Arrays.copyOf(offsets, entries * 2);
+				}
+				timestamps[entries] = timestamp;
+				offsets[entries++] = size;
+				nextIndexAt = size + INDEX_INTERVAL_IN_BYTES;
+			}
+			scanWords(entry, this);
+		}
+
+		@Override
+		public void accept(String text, int start, int end) {
+			if(end - start >= MIN_INDEXED_WORD_LENGTH) words.add(text, start, end);
+		}
+
+		void write(File file) throws IOException {
+			try(DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				index.writeInt(INDEX_MAGIC);
+				index.writeLong(entries == 0 ? 0 : first);
+				index.writeLong(entries == 0 ? 0 : last);
+				index.writeLong(size);
+				index.writeInt(entries);
+				for(int i = 0; i < entries; i++) {
+					index.writeLong(timestamps[i]);
+					index.writeLong(offsets[i]);
+				}
+				long[] bits = words.copyWords();
+				index.writeInt(words.getBitCount());
+				index.writeInt(words.getHashCount());
+				index.writeInt(bits.length);
+				for(long word : bits) {
+					index.writeLong(word);
+				}
+			}
+		}
+	}
+
+	// READING
+
+	public static class Index {
+		private final long first, last;
+		private final long[] timestamps, offsets;
+		private final UsernameFilter.Bits words;
+
+		private Index(long first, long last, long[] timestamps, long[] offsets, UsernameFilter.Bits words) {
+			this.first = first;
+			this.last = last;
+			this.timestamps = timestamps;
+			this.offsets = offsets;
+			this.words = words;
+		}
+
+		// null for a segment that is still being written
+		public static Index read(File segment) throws IOException {
+			File file = indexFile(segment);
+			if(!file.exists()) return null;
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if(in.readInt() != INDEX_MAGIC) throw new IOException(file + " is not a log segment index");
+				long first = in.readLong(), last = in.readLong();
+				in.readLong();
+				int entries = in.readInt();
+				long[] timestamps = new long[entries], offsets = new long[entries];
+				for(int i = 0; i < entries; i++) {
+					timestamps[i] = in.readLong();
+					offsets[i] = in.readLong();
+				}
+				int bitCount = in.readInt(), hashCount = in.readInt();
+				long[] bits = new long[in.readInt()];
+				for(int i = 0; i < bits.length; i++) {
+					bits[i] = in.readLong();
+				}
+				return new Index(first, last, timestamps, offsets, new UsernameFilter.Bits(0, bitCount, hashCount, bits));
+			}
+		}
+
+		public boolean overlaps(long from, long to) {
+			return timestamps.length > 0 && first <= to && last >= from;
+		}
+
+		// words too short to be indexed may be anywhere
+		public boolean mightMention(String word) {
+			return word.length() < MIN_INDEXED_WORD_LENGTH || words.mightContain(word);
+		}
+
+		// where to start reading for entries at or after from: an indexed entry a second earlier, as the servant's
+		// threads take their timestamps before the logger lock and may append a little out of order
+		public long offsetBefore(long from) {
+			long earliest = from < Long.MIN_VALUE + OUT_OF_ORDER_IN_MILLIS ? Long.MIN_VALUE : from - OUT_OF_ORDER_IN_MILLIS;
+			int start = 0;
+			for(int i = 0; i < timestamps.length && timestamps[i] < earliest; i++) {
+				start = i;
+			}
+			return timestamps.length == 0 ? 0 : offsets[start];
+		}
+
+		// where reading can stop for entries up to to, or the end of the segment
+		public long offsetAfter(long to) {
+			long latest = to > Long.MAX_VALUE - OUT_OF_ORDER_IN_MILLIS ? Long.MAX_VALUE : to + OUT_OF_ORDER_IN_MILLIS;
+			for(int i = 0; i < timestamps.length; i++) {
+				if(timestamps[i] > latest) return offsets[i];
+			}
+			return Long.MAX_VALUE;
+		}
+	}
+
+	public static class Entry {
+		public final long offset, timestamp;
+		public final String text;
+
+		Entry(long offset, long timestamp, String text) {
+			this.offset = offset;
+			this.timestamp = timestamp;
+			this.text = text;
+		}
+	}
+
+	// the entries between two offsets: a timestamped line and the lines after it that have none
+	public static long readEntries(File segment, long from, long to, Consumer<Entry> consumer) throws IOException {
+		try(FileInputStream file = new FileInputStream(segment)) {
+			file.getChannel().position(from);
+			BufferedReader in = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8), 1 << 16);
+			long offset = from, entryOffset = from, entryTimestamp = -1;
+			StringBuilder entry = new StringBuilder();
+			for(String line = in.readLine(); line != null; line = in.readLine()) {
+				long timestamp = timestampOf(line);
+				if(timestamp >= 0) {
+					if(entryTimestamp >= 0) consumer.accept(new Entry(entryOffset, entryTimestamp, entry.toString()));
+					if(offset >= to) return offset - from;
+					entry.setLength(0);
+					entryOffset = offset;
+					entryTimestamp = timestamp;
+				} else if(entry.length() > 0) {
+					entry.append(System.lineSeparator());
+				}
+				entry.append(line);
+				// the log is written with the platform's line separator
+				offset += line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+			}
+			if(entryTimestamp >= 0) consumer.accept(new Entry(entryOffset, entryTimestamp, entry.toString()));
+			return offset - from;
+		}
+	}
+
+	// epoch milliseconds of a line that starts with [yyyy/MM/dd HH:mm:ss], otherwise -1
+	public static long timestampOf(String line) {
+		if(line.length() < LINE_TIMESTAMP_PATTERN.length() + 2 || line.charAt(0) != '[' || line.charAt(LINE_TIMESTAMP_PATTERN.length() + 1) != ']') return -1;
+		try {
+			return LocalDateTime.parse(line.substring(1, LINE_TIMESTAMP_PATTERN.length() + 1), LINE_TIMESTAMP)
+					.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		} catch(DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+	// runs of letters, digits and _ . @ -, as usernames and IP addresses are written, without a sentence's full stop
+	public static void forEachWord(String text, Consumer<String> consumer) {
+		scanWords(text, (line, start, end) -> consumer.accept(line.substring(start, end)));
+	}
+
+	private interface WordRange {
+		void accept(String text, int start, int end);
+	}
+
+	private static void scanWords(String text, WordRange consumer) {
+		int start = -1;
+		for(int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+			boolean wordChar = Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '@' || c == '-';
+			if(wordChar && start < 0) {
+				start = i;
+			} else if(!wordChar && start >= 0) {
+				consumer.accept(text, start, i);
+				if(text.charAt(i - 1) == '.' && i - start > 1) consumer.accept(text, start, i - 1);
+				start = -1;
+			}
+		}
+	}
+
+	public static File[] segments(File directory) {
+		File[] segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+		if(segments == null) return new File[0];
+		Arrays.sort(segments, (a, b) -> Integer.compare(sequenceOf(a), sequenceOf(b)));
+		return segments;
+	}
+
+	private static int sequenceOf(File segment) {
+		String name = segment.getName();
+		try {
+			return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.length() - ".log".length()));
+		} catch(NumberFormatException | StringIndexOutOfBoundsException e) {
+			return 0;
+		}
+	}
+
+	private static File indexFile(File segment) {
+		return new File(segment.getPath().replaceFirst("\\.log$", ".idx"));
+	}
+}
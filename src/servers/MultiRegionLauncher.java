@@ -0,0 +1,51 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.omg.CORBA.ORB;
+
+import topology.Region;
+import topology.Topology;
+
+// Starts the shards of several regions in one process, sharing an ORB: MultiRegionLauncher [<region>[:<shard>] ...] [ORB args]
+// Without regions it starts every configured shard of every region. The servants still reach each other
+// through the topology's UDP ports, but a message to one hosted here is a direct call (see LocalPeers),
+// so a deployment can co-locate regions and keep the same code path for the ones it runs elsewhere.
+public class MultiRegionLauncher {
+
+	public static void main(String[] args) {
+		Topology configured = Topology.getDefault();
+		List<String[]> shards = new ArrayList<>();
+		int first = 0;
+		for(; first < args.length && !args[first].startsWith("-"); first++) {
+			String[] shard = args[first].split(":", 2);
+			if(!configured.hasRegion(shard[0]) || (shard.length > 1 && !shard[1].matches("\\d+"))) {
+				System.err.println("Usage: MultiRegionLauncher [<region>[:<shard>] ...] [ORB args] -- regions: " + configured.getRegionIds());
+				return;
+			}
+			shards.add(shard);
+		}
+		if(shards.isEmpty()) {
+			for(Region region : configured.getRegions()) {
+				for(int index = 0; index < region.getShardCount(); index++) {
+					shards.add(new String[] { region.getId(), String.valueOf(index) });
+				}
+			}
+		}
+		String[] orbArgs = Arrays.copyOfRange(args, first, args.length);
+
+		try {
+			ORB orb = GameServerLauncher.initORB(orbArgs);
+			for(String[] shard : shards) {
+				// each servant resizes its own region's ring during a split, so none of them share a topology
+				GameServerLauncher.start(orb, shard[0], shard.length > 1 ? Integer.parseInt(shard[1]) : 0, false, Topology.load());
+			}
+			orb.run();
+		} catch (Exception e) {
+			System.err.println("ERROR: " + e);
+			e.printStackTrace(System.out);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package servers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+import metrics.OperationMetrics;
+
+// Runs the blocking UDP calls a servant makes to its peers, away from the common fork-join pool.
+// Only leaf calls belong here: a task that waits on other tasks of this executor could starve it.
+// -Dgameserver.peerExecutor=virtual runs every call on its own virtual thread where the JDK has them,
+// otherwise a fixed pool of -Dgameserver.peerExecutor.threads platform threads is used.
+public class PeerCallExecutor implements Executor {
+
+	public static final String MODE_PROPERTY = "gameserver.peerExecutor";
+	public static final String THREADS_PROPERTY = "gameserver.peerExecutor.threads";
+	private static final int DEFAULT_THREADS = 32;
+
+	private final ExecutorService delegate;
+	private final String mode;
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final LongAccumulator peakQueued = new LongAccumulator(Long::max, 0);
+	private final LongAccumulator peakRunning = new LongAccumulator(Long::max, 0);
+	private final LatencyHistogram queueWaits = new LatencyHistogram();
+
+	public PeerCallExecutor(String name) {
+		ExecutorService virtual = System.getProperty(MODE_PROPERTY, "pool").equals("virtual") ? newVirtualThreadExecutor() : null;
+		if(virtual != null) {
+			this.delegate = virtual;
+			this.mode = "virtual threads";
+		} else {
+			int threads = Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS);
+			AtomicInteger threadCount = new AtomicInteger();
+			this.delegate = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, String.format("%s-%d", name, threadCount.incrementAndGet()));
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.mode = String.format("pool of %d threads", threads);
+		}
+	}
+
+	// Executors.newVirtualThreadPerTaskExecutor() only exists from JDK 21, older runtimes fall back to the pool
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			System.err.println(String.format("Virtual threads are not available on Java %s, using a thread pool for peer calls",
+					System.getProperty("java.version")));
+			return null;
+		}
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		long submittedAt = System.nanoTime();
+		submitted.increment();
+		peakQueued.accumulate(queued.incrementAndGet());
+		try {
+			delegate.execute(() -> {
+				queued.decrementAndGet();
+				queueWaits.record(System.nanoTime() - submittedAt);
+				peakRunning.accumulate(running.incrementAndGet());
+				try {
+					task.run();
+				} finally {
+					running.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			queued.decrementAndGet();
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	public String describe() {
+		LatencyHistogram.Snapshot waits = queueWaits.snapshot();
+		return String.format("peer call executor (%s) -- submitted: %d, running: %d (peak %d), queued: %d (peak %d), rejected: %d, queue wait p50: %.3f ms, p99: %.3f ms, max: %.3f ms",
+				mode, submitted.sum(), running.get(), peakRunning.get(), queued.get(), peakQueued.get(), rejected.sum(),
+				OperationMetrics.toMillis(waits.percentile(50)), OperationMetrics.toMillis(waits.percentile(99)), OperationMetrics.toMillis(waits.getMax()));
+	}
+}
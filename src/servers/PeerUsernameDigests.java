@@ -0,0 +1,114 @@
+package servers;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import models.UsernameDigest;
+
+// The username filters other regions' shards publish to this servant, kept per source shard.
+// A delta is only applied on top of the sequence number before it, anything else asks for a new snapshot.
+public class PeerUsernameDigests {
+
+	public static final String APPLIED = "ok";
+	public static final String GAP = "gap";
+
+	private static class Digest {
+		private final UsernameFilter.Bits bits;
+		private volatile long sequence;
+		private volatile long updatedAt = System.currentTimeMillis();
+
+		Digest(UsernameFilter.Bits bits, long sequence) {
+			this.bits = bits;
+			this.sequence = sequence;
+		}
+	}
+
+	// a snapshot being assembled from its chunks, which may arrive more than once
+	private static class PendingSnapshot {
+		private final long generation, sequence;
+		private final int bitCount, hashCount;
+		private final long[] words;
+		private final BitSet received;
+
+		PendingSnapshot(long generation, long sequence, int bitCount, int hashCount, int totalWords) {
+			this.generation = generation;
+			this.sequence = sequence;
+			this.bitCount = bitCount;
+			this.hashCount = hashCount;
+			this.words = new long[totalWords];
+			this.received = new BitSet(totalWords);
+		}
+
+		boolean matches(UsernameDigest message) {
+			return generation == message.getGeneration() && sequence == message.getSequence() && bitCount == message.getBitCount()
+					&& hashCount == message.getHashCount() && words.length == message.getTotalWords();
+		}
+	}
+
+	private final ConcurrentHashMap<String, Digest> digests = new ConcurrentHashMap<>();
+	private final Map<String, PendingSnapshot> pendingSnapshots = new ConcurrentHashMap<>();
+
+	public String apply(UsernameDigest message) {
+		String source = message.getSourceShard();
+		if(message.getKind() == UsernameDigest.Kind.SNAPSHOT) {
+			// a malformed chunk is refused rather than thrown in the listener, and the peer sends a new snapshot
+			if(!isWellFormedChunk(message)) return GAP;
+			PendingSnapshot pending = pendingSnapshots.get(source);
+			if(pending == null || !pending.matches(message)) {
+				pending = new PendingSnapshot(message.getGeneration(), message.getSequence(), message.getBitCount(), message.getHashCount(), message.getTotalWords());
+				pendingSnapshots.put(source, pending);
+			}
+			int offset = message.getWordOffset(), length = message.getWords().length;
+			System.arraycopy(message.getWords(), 0, pending.words, offset, length);
+			// installed once every word has arrived, however often a chunk was sent
+			pending.received.set(offset, offset + length);
+			if(pending.received.cardinality() == pending.words.length) {
+				pendingSnapshots.remove(source);
+				digests.put(source, new Digest(new UsernameFilter.Bits(pending.generation, pending.bitCount, pending.hashCount, pending.words), pending.sequence));
+			}
+			return APPLIED;
+		}
+		if(message.getUsernames() == null) return GAP;
+
+		Digest digest = digests.get(source);
+		if(digest == null || digest.bits.getGeneration() != message.getGeneration()) return GAP;
+		synchronized(digest) {
+			// a delta sent again after a lost reply is already applied
+			if(message.getSequence() <= digest.sequence) return APPLIED;
+			if(message.getSequence() != digest.sequence + 1) return GAP;
+			message.getUsernames().forEach(digest.bits::add);
+			digest.sequence = message.getSequence();
+			digest.updatedAt = System.currentTimeMillis();
+		}
+		return APPLIED;
+	}
+
+	// the words must fit the filter they describe, and the chunk the words
+	private static boolean isWellFormedChunk(UsernameDigest message) {
+		long[] words = message.getWords();
+		int bitCount = message.getBitCount(), totalWords = message.getTotalWords(), offset = message.getWordOffset();
+		return words != null && bitCount > 0 && message.getHashCount() > 0 && totalWords == (int) ((bitCount + 63L) / 64)
+				&& offset >= 0 && offset <= totalWords - words.length;
+	}
+
+	// the shards whose digest may contain the name, to be confirmed with them
+	public List<String> possibleOwners(String uName) {
+		return digests.entrySet().stream()
+				.filter(digest -> digest.getValue().bits.mightContain(uName))
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+	}
+
+	public String describe() {
+		if(digests.isEmpty()) return "no username digests received from peers yet";
+		long now = System.currentTimeMillis();
+		return new TreeMap<>(digests).entrySet().stream()
+				.map(digest -> String.format("%s #%d (updated %d ms ago, estimated false positive rate %.4f%%)", digest.getKey(),
+						digest.getValue().sequence, now - digest.getValue().updatedAt, digest.getValue().bits.estimatedFalsePositiveRate() * 100))
+				.collect(Collectors.joining(", ", "username digests from ", ""));
+	}
+}
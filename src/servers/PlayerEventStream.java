@@ -0,0 +1,195 @@
+package servers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import models.PlayerEvent;
+
+// Ordered stream of a servant's player events for monitoring tools. Events are numbered and kept in a ring
+// of the most recent ones; publishing only fills a slot, so writers never wait on subscribers.
+// A subscriber connects to the event port on the loopback interface and sends the last sequence number it
+// has seen on one line, 0 for every event still kept or -1 for new events only, optionally followed by the
+// epoch it was seen in, so a subscriber of an earlier run gets every event kept instead. It gets
+// "STREAM <label> <epoch> FROM <sequence>" and then batches of "BATCH <count>" followed by one tab separated
+// line per event. Its sender reads the ring on its own thread, and a subscriber the ring has lapped is told
+// "DROPPED" and disconnected, or just disconnected if it has stopped reading; it may resume from its last sequence.
+// The epoch changes when the servant restarts, and numbering starts over with it.
+public class PlayerEventStream {
+
+	private static final int RING_SIZE = 1 << 16;
+	private static final int MAX_BATCH = 512;
+	private static final int RESUME_TIMEOUT_IN_MILLIS = 10000;
+
+	private final String label;
+	private final int port;
+	private final long epoch = System.currentTimeMillis();
+	private final PlayerEvent[] ring = new PlayerEvent[RING_SIZE];
+	private long head; // guarded by ring: the last sequence published
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+	private final LongAdder dropped = new LongAdder();
+	private ServerSocket serverSocket;
+
+	public PlayerEventStream(String label, int port) {
+		this.label = label;
+		this.port = port;
+	}
+
+	public void start() throws IOException {
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::acceptSubscribers, label + "-events");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public void publish(PlayerEvent.Type type, String uName, String ipAddress, String detail) {
+		synchronized(ring) {
+			long sequence = head + 1;
+			ring[(int) (sequence & (RING_SIZE - 1))] = new PlayerEvent(sequence, System.currentTimeMillis(), type, uName, ipAddress, detail);
+			head = sequence;
+			if(!subscribers.isEmpty()) ring.notifyAll();
+		}
+	}
+
+	private void acceptSubscribers() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Subscriber subscriber = new Subscriber(socket);
+				Thread sender = new Thread(subscriber::send, label + "-events-sender");
+				sender.setDaemon(true);
+				sender.start();
+			} catch(IOException e) {
+				// closed while accepting, or a subscriber that hung up straight away
+			}
+		}
+	}
+
+	// the events after the given sequence, up to one batch, waiting for the first; null once they are overwritten
+	private List<PlayerEvent> eventsAfter(long sequence) throws InterruptedException {
+		synchronized(ring) {
+			while(head <= sequence) {
+				ring.wait();
+			}
+			if(head - sequence > RING_SIZE) return null;
+			List<PlayerEvent> batch = new ArrayList<>();
+			for(long next = sequence + 1; next <= head && batch.size() < MAX_BATCH; next++) {
+				batch.add(ring[(int) (next & (RING_SIZE - 1))]);
+			}
+			return batch;
+		}
+	}
+
+	// where a subscriber resuming after the given sequence starts: right after it, or at the oldest event kept
+	private long resumeAfter(long sequence) {
+		synchronized(ring) {
+			if(sequence < 0 || sequence > head) return head;
+			return Math.max(sequence, head - RING_SIZE);
+		}
+	}
+
+	// closes the subscribers whose unsent events have been overwritten, which unblocks a sender stuck writing to one
+	public void dropLapped() {
+		long published;
+		synchronized(ring) {
+			published = head;
+		}
+		for(Subscriber subscriber : subscribers) {
+			if(published - subscriber.sent > RING_SIZE && subscribers.remove(subscriber)) {
+				dropped.increment();
+				subscriber.close();
+			}
+		}
+	}
+
+	private class Subscriber {
+		private final Socket socket;
+		private volatile long sent;
+
+		Subscriber(Socket socket) {
+			this.socket = socket;
+		}
+
+		private void send() {
+			try {
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+				// not yet among the subscribers the lapped sweep looks at, so one that never says where to resume is timed out
+				socket.setSoTimeout(RESUME_TIMEOUT_IN_MILLIS);
+				String resumeFrom = in.readLine();
+				socket.setSoTimeout(0);
+				long after;
+				try {
+					String[] resume = resumeFrom == null ? new String[] { "-1" } : resumeFrom.trim().split(" ");
+					after = Long.parseLong(resume[0]);
+					if(resume.length > 1 && Long.parseLong(resume[1]) != epoch) after = 0;
+				} catch(NumberFormatException e) {
+					after = -1;
+				}
+				sent = resumeAfter(after);
+				// only now has it a position the lapped sweep can go by
+				subscribers.add(this);
+				out.write(String.format("STREAM %s %d FROM %d\n", label, epoch, sent + 1));
+				out.flush();
+				while(!socket.isClosed()) {
+					List<PlayerEvent> batch = eventsAfter(sent);
+					if(batch == null) {
+						if(subscribers.remove(this)) dropped.increment();
+						out.write(String.format("DROPPED after %d\n", sent));
+						out.flush();
+						break;
+					}
+					out.write(String.format("BATCH %d\n", batch.size()));
+					for(PlayerEvent event : batch) {
+						out.write(event.toLine());
+						out.write('\n');
+					}
+					out.flush();
+					sent = batch.get(batch.size() - 1).getSequence();
+				}
+			} catch(IOException e) {
+				// the subscriber went away
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				close();
+			}
+		}
+
+		private void close() {
+			subscribers.remove(this);
+			try {
+				socket.close();
+			} catch(IOException e) {
+				// already closed
+			}
+		}
+
+		String describe() {
+			return String.format("%s at #%d", socket.getRemoteSocketAddress(), sent);
+		}
+	}
+
+	public String describe() {
+		long published;
+		synchronized(ring) {
+			published = head;
+		}
+		String attached = subscribers.isEmpty() ? "no subscribers"
+				: subscribers.stream().map(Subscriber::describe).collect(Collectors.joining(", ", "subscribers ", ""));
+		return String.format("player events on port %d -- at #%d, %s, dropped for lagging: %d", port, published, attached, dropped.sum());
+	}
+}
@@ -0,0 +1,224 @@
+package servers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import models.Player;
+
+// Player account files for bulk import and export, as CSV or, for a path ending in .bin, a binary format.
+// CSV has a header line and one player per line: fName,lName,uName,password,ipAddress,age,status, where a
+// field holding a comma, quote or line break is quoted, a quoted field may span lines, and status (online or
+// offline) is optional on import.
+// Binary starts with MAGIC and holds the same fields per player as modified UTF-8 strings, an int and a boolean.
+// An export leaves the password empty unless asked for it, and such a file's records do not import.
+// Readers hand out raw records in chunks and leave splitting them into fields to the pipeline's workers.
+public final class PlayerFiles {
+
+	public static final String CSV_HEADER = "fName,lName,uName,password,ipAddress,age,status";
+	private static final int MAGIC = 0x47505331; // GPS1
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private PlayerFiles() {
+	}
+
+	public static boolean isBinary(String path) {
+		return path.endsWith(".bin");
+	}
+
+	public static abstract class Reader<R> implements Closeable {
+		// the next raw records, up to count, or an empty list at the end of the file
+		public abstract List<R> read(int count) throws IOException;
+		// fName, lName, uName, password, ipAddress and age; IllegalArgumentException for a malformed record
+		public abstract String[] fields(R record);
+	}
+
+	public static Reader<?> open(String path) throws IOException {
+		return isBinary(path) ? new BinaryReader(path) : new CsvReader(path);
+	}
+
+	private static class CsvReader extends Reader<String> {
+		private final BufferedReader in;
+		private boolean first = true;
+
+		CsvReader(String path) throws IOException {
+			this.in = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+		}
+
+		@Override
+		public List<String> read(int count) throws IOException {
+			List<String> lines = new ArrayList<>(count);
+			String line;
+			while(lines.size() < count && (line = in.readLine()) != null) {
+				if(first && line.startsWith("fName,")) {
+					first = false;
+					continue;
+				}
+				first = false;
+				if(!line.isEmpty()) lines.add(continueQuoted(line));
+			}
+			return lines;
+		}
+
+		// a record whose quoted field is still open goes on over the next lines, up to BUFFER_SIZE characters
+		private String continueQuoted(String line) throws IOException {
+			if(!endsInQuotedField(line)) return line;
+			StringBuilder record = new StringBuilder(line);
+			String next;
+			while(record.length() < BUFFER_SIZE && (next = in.readLine()) != null) {
+				record.append('\n').append(next);
+				if(!endsInQuotedField(record)) break;
+			}
+			return record.toString();
+		}
+
+		// only a quote that starts a field opens one, a stray quote inside a field is left for fields() to reject
+		private boolean endsInQuotedField(CharSequence record) {
+			boolean quoted = false, fieldStart = true;
+			for(int i = 0; i < record.length(); i++) {
+				char c = record.charAt(i);
+				if(quoted) {
+					if(c != '"') continue;
+					if(i + 1 < record.length() && record.charAt(i + 1) == '"') i++;
+					else quoted = false;
+				} else {
+					if(c == '"' && fieldStart) quoted = true;
+					fieldStart = c == ',';
+				}
+			}
+			return quoted;
+		}
+
+		@Override
+		public String[] fields(String line) {
+			List<String> fields = new ArrayList<>(7);
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false, closed = false;
+			for(int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if(quoted) {
+					if(c != '"') field.append(c);
+					else if(i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+					else {
+						quoted = false;
+						closed = true;
+					}
+				} else if(c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+					closed = false;
+				} else if(closed || c == '"' && field.length() > 0) {
+					// a quote inside an unquoted field, or text after a closing quote
+					throw new IllegalArgumentException(line);
+				} else if(c == '"') {
+					quoted = true;
+				} else {
+					field.append(c);
+				}
+			}
+			fields.add(field.toString());
+			if(quoted || fields.size() < 6 || fields.size() > 7) throw new IllegalArgumentException(line);
+			return fields.subList(0, 6).toArray(new String[6]);
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	private static class BinaryReader extends Reader<String[]> {
+		private final DataInputStream in;
+
+		BinaryReader(String path) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE));
+			try {
+				if(in.readInt() != MAGIC) throw new IOException(path + " is not a binary player file");
+			} catch(IOException e) {
+				in.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public List<String[]> read(int count) throws IOException {
+			List<String[]> records = new ArrayList<>(count);
+			while(records.size() < count) {
+				String fName;
+				try {
+					fName = in.readUTF();
+				} catch(EOFException e) {
+					break;
+				}
+				// a file cut short inside a record is an error, not the end
+				String[] record = { fName, in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), String.valueOf(in.readInt()) };
+				in.readBoolean();
+				records.add(record);
+			}
+			return records;
+		}
+
+		@Override
+		public String[] fields(String[] record) {
+			return record;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	public static void writeHeader(OutputStream out, boolean binary) throws IOException {
+		if(binary) new DataOutputStream(out).writeInt(MAGIC);
+		else out.write((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	// the players in the file's format, so that slices encoded in parallel can be written one after another
+	public static byte[] encode(List<Player> players, boolean binary, boolean withPasswords) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(players.size() * 64);
+		try {
+			if(binary) {
+				DataOutputStream out = new DataOutputStream(bytes);
+				for(Player player : players) {
+					out.writeUTF(player.getfName());
+					out.writeUTF(player.getlName());
+					out.writeUTF(player.getuName());
+					out.writeUTF(withPasswords ? player.getPassword() : "");
+					out.writeUTF(player.getIpAddress());
+					out.writeInt(player.getAge());
+					out.writeBoolean(player.getStatus());
+				}
+			} else {
+				StringBuilder csv = new StringBuilder(players.size() * 64);
+				for(Player player : players) {
+					csv.append(csvField(player.getfName())).append(',').append(csvField(player.getlName())).append(',')
+							.append(csvField(player.getuName())).append(',').append(withPasswords ? csvField(player.getPassword()) : "").append(',')
+							.append(csvField(player.getIpAddress())).append(',').append(player.getAge()).append(',')
+							.append(player.getStatus() ? "online" : "offline").append('\n');
+				}
+				bytes.write(csv.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		} catch(IOException e) {
+			// a byte array stream does not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static String csvField(String field) {
+		if(field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) return field;
+		return "\"" + field.replace("\"", "\"\"") + "\"";
+	}
+}
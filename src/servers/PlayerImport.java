@@ -0,0 +1,55 @@
+package servers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts of an admin-triggered bulk import of players from a file, updated by the import's workers
+public class PlayerImport {
+
+	private final String path;
+	private final long startedAt = System.nanoTime();
+	private final LongAdder read = new LongAdder();
+	private final LongAdder imported = new LongAdder();
+	private final LongAdder malformed = new LongAdder();
+	private final LongAdder invalid = new LongAdder();
+	private final LongAdder elsewhere = new LongAdder();
+	private final LongAdder duplicates = new LongAdder();
+
+	public PlayerImport(String path) {
+		this.path = path;
+	}
+
+	public void recordRead(int records) {
+		read.add(records);
+	}
+
+	public void recordImported(int players) {
+		imported.add(players);
+	}
+
+	// a record without six fields and a numeric age
+	public void recordMalformed() {
+		malformed.increment();
+	}
+
+	// a record the Player constructor turns down for its username or password
+	public void recordInvalid() {
+		invalid.increment();
+	}
+
+	// a player of another region or shard
+	public void recordElsewhere() {
+		elsewhere.increment();
+	}
+
+	// a username already stored here or in another region, or repeated in the file
+	public void recordDuplicate() {
+		duplicates.increment();
+	}
+
+	public String describe(String serverLabel) {
+		long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+		return String.format("%s: imported %d of %d players from %s in %.1f s (%.0f records/s) -- malformed: %d, invalid: %d, belonging elsewhere: %d, duplicates: %d",
+				serverLabel, imported.sum(), read.sum(), path, elapsedNanos / 1e9, read.sum() * 1e9 / elapsedNanos,
+				malformed.sum(), invalid.sum(), elsewhere.sum(), duplicates.sum());
+	}
+}
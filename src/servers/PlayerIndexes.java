@@ -0,0 +1,185 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import models.Player;
+import topology.CidrBlock;
+import topology.IPv4;
+
+// Secondary indexes over the players a servant stores: by /24 subnet of their IP address, by online status
+// and by age. Players are filed as they are stored and unfiled as they are removed, and refiled after
+// every change to an indexed field, with the store's write lock or the player's lock held by the caller.
+// Each player's keys are moved inside one compute on its entry, so concurrent refilings of a player
+// cannot leave it under a stale key. Queries start from the smallest matching set and check the
+// remaining conditions on each candidate, so they cost in proportion to that set, not to the store.
+public class PlayerIndexes {
+
+	private static final int NO_SUBNET = -1;
+
+	private static class Keys {
+		private final int subnet;
+		private final boolean online;
+		private final int age;
+
+		Keys(Player player) {
+			long address = IPv4.parse(player.getIpAddress());
+			this.subnet = address == IPv4.INVALID ? NO_SUBNET : (int) (address >>> 8);
+			this.online = player.getStatus();
+			this.age = player.getAge();
+		}
+	}
+
+	// players by one key, with the set of a key dropped once it is empty
+	private static class Index<K> {
+		private final ConcurrentHashMap<K, Set<Player>> players = new ConcurrentHashMap<>();
+
+		void file(K key, Player player) {
+			players.compute(key, (k, filed) -> {
+				if(filed == null) filed = ConcurrentHashMap.newKeySet();
+				filed.add(player);
+				return filed;
+			});
+		}
+
+		void unfile(K key, Player player) {
+			players.computeIfPresent(key, (k, filed) -> {
+				filed.remove(player);
+				return filed.isEmpty() ? null : filed;
+			});
+		}
+
+		Set<Player> get(K key) {
+			Set<Player> filed = players.get(key);
+			return filed == null ? Collections.emptySet() : filed;
+		}
+	}
+
+	// Player does not override equals, so players are told apart by identity
+	private final ConcurrentHashMap<Player, Keys> filed = new ConcurrentHashMap<>();
+	private final Index<Integer> bySubnet = new Index<>();
+	private final Index<Boolean> byStatus = new Index<>();
+	private final Index<Integer> byAge = new Index<>();
+
+	public void add(Player player) {
+		if(player.getuName().equals("Admin")) return;
+		filed.compute(player, (p, previous) -> {
+			if(previous != null) unfile(p, previous);
+			Keys keys = new Keys(p);
+			file(p, keys);
+			return keys;
+		});
+	}
+
+	public void remove(Player player) {
+		filed.computeIfPresent(player, (p, keys) -> {
+			unfile(p, keys);
+			return null;
+		});
+	}
+
+	// after a change to an indexed field of a stored player; a player removed meanwhile stays out
+	public void refile(Player player) {
+		filed.computeIfPresent(player, (p, previous) -> {
+			Keys keys = new Keys(p);
+			if(keys.subnet != previous.subnet) {
+				bySubnet.unfile(previous.subnet, p);
+				bySubnet.file(keys.subnet, p);
+			}
+			if(keys.online != previous.online) {
+				byStatus.unfile(previous.online, p);
+				byStatus.file(keys.online, p);
+			}
+			if(keys.age != previous.age) {
+				byAge.unfile(previous.age, p);
+				byAge.file(keys.age, p);
+			}
+			return keys;
+		});
+	}
+
+	private void file(Player player, Keys keys) {
+		bySubnet.file(keys.subnet, player);
+		byStatus.file(keys.online, player);
+		byAge.file(keys.age, player);
+	}
+
+	private void unfile(Player player, Keys keys) {
+		bySubnet.unfile(keys.subnet, player);
+		byStatus.unfile(keys.online, player);
+		byAge.unfile(keys.age, player);
+	}
+
+	// the players matching every condition given: a subnet or null, online or offline or null, and an age range
+	public Query query(CidrBlock subnet, Boolean online, int minAge, int maxAge) {
+		return new Query(subnet, online, minAge, maxAge);
+	}
+
+	public class Query {
+		private final List<Set<Player>> candidates;
+		private final Predicate<Player> matches;
+
+		private Query(CidrBlock subnet, Boolean online, int minAge, int maxAge) {
+			List<List<Set<Player>>> choices = new ArrayList<>();
+			if(subnet != null) choices.add(subnetSets(subnet));
+			if(online != null) choices.add(Collections.singletonList(byStatus.get(online)));
+			if(minAge > 0 || maxAge < Integer.MAX_VALUE) {
+				choices.add(byAge.players.entrySet().stream()
+						.filter(age -> age.getKey() >= minAge && age.getKey() <= maxAge)
+						.map(age -> age.getValue()).collect(Collectors.toList()));
+			}
+			if(choices.isEmpty()) choices.add(Collections.singletonList(filed.keySet()));
+			this.candidates = choices.stream().min(Comparator.comparingLong(PlayerIndexes::sizeOf)).get();
+			// the field values are checked again, a candidate may have changed since it was filed
+			this.matches = player -> (subnet == null || subnet.contains(player.getIpAddress()))
+					&& (online == null || player.getStatus() == online)
+					&& player.getAge() >= minAge && player.getAge() <= maxAge
+					&& filed.containsKey(player);
+		}
+
+		public long count() {
+			return candidates.stream().flatMap(Set::stream).filter(matches).distinct().count();
+		}
+
+		// up to limit matching players in username order
+		public List<Player> list(int limit) {
+			return candidates.stream().flatMap(Set::stream).filter(matches).distinct()
+					.sorted(Comparator.comparing(Player::getuName)).limit(limit).collect(Collectors.toList());
+		}
+	}
+
+	// the /24 sets inside the subnet, found by key for a narrow subnet and by scanning the filed subnets for a wide one
+	private List<Set<Player>> subnetSets(CidrBlock subnet) {
+		if(subnet.getPrefixLength() >= 24) {
+			return Collections.singletonList(bySubnet.get(subnet.getNetwork() >>> 8));
+		}
+		long widths = 1L << (24 - subnet.getPrefixLength());
+		if(widths > bySubnet.players.size()) {
+			return bySubnet.players.entrySet().stream()
+					.filter(filedSubnet -> filedSubnet.getKey() != NO_SUBNET && subnet.contains(filedSubnet.getKey() << 8))
+					.map(filedSubnet -> filedSubnet.getValue()).collect(Collectors.toList());
+		}
+		List<Set<Player>> sets = new ArrayList<>();
+		int first = subnet.getNetwork() >>> 8;
+		for(long i = 0; i < widths; i++) {
+			Set<Player> players = bySubnet.get(first + (int) i);
+			if(!players.isEmpty()) sets.add(players);
+		}
+		return sets;
+	}
+
+	private static long sizeOf(List<Set<Player>> sets) {
+		return sets.stream().mapToLong(Set::size).sum();
+	}
+
+	public String describe() {
+		return String.format("player indexes -- players: %d, subnets: %d, online: %d, distinct ages: %d",
+				filed.size(), bySubnet.players.size(), byStatus.get(true).size(), byAge.players.size());
+	}
+}
@@ -0,0 +1,86 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import models.Player;
+
+// One page of an admin's listing of the players a shard stores, in username order after the cursor,
+// which is the last username of the previous page. Each bucket of the store is read from its
+// copy-on-write snapshot, so a listing takes no store lock and players added or removed between pages
+// are listed or not depending on where they fall relative to the cursor, but no player is listed twice.
+public class PlayerListing {
+
+	public static final String NEXT_CURSOR = "Next cursor: ";
+	public static final String END_OF_LISTING = "End of listing";
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	private final String cursor;
+	private final int pageSize;
+	private final String status;
+	private final String uNamePrefix;
+
+	public PlayerListing(String cursor, int pageSize, String status, String uNamePrefix) {
+		if(pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException(String.format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+		}
+		if(!(status.equals("*") || status.equals("online") || status.equals("offline"))) {
+			throw new IllegalArgumentException(String.format("Unknown player status '%s' -- expected online, offline or *", status));
+		}
+		this.cursor = cursor;
+		this.pageSize = pageSize;
+		this.status = status;
+		this.uNamePrefix = uNamePrefix.equals("*") ? "" : uNamePrefix;
+	}
+
+	public boolean matches(Player player) {
+		if(player.getuName().equals("Admin")) return false;
+		if(status.equals("online") && !player.getStatus()) return false;
+		if(status.equals("offline") && player.getStatus()) return false;
+		return player.getuName().startsWith(uNamePrefix) && player.getuName().compareTo(cursor) > 0;
+	}
+
+	public String page(String shardLabel, Map<Character, CopyOnWriteArrayList<Player>> playerHash) {
+		List<Player> page = new ArrayList<>(pageSize);
+		// usernames sort by their first character first, so the buckets are visited in that order
+		for(Character bucket : new TreeSet<>(playerHash.keySet())) {
+			if(page.size() == pageSize) break;
+			if(!cursor.isEmpty() && bucket < cursor.charAt(0)) continue;
+			if(!uNamePrefix.isEmpty() && bucket != uNamePrefix.charAt(0)) continue;
+			page.addAll(firstMatching(playerHash.get(bucket), pageSize - page.size()));
+		}
+
+		StringBuilder listing = new StringBuilder(String.format("%s: %d players after '%s'", shardLabel, page.size(), cursor));
+		for(Player player : page) {
+			listing.append(String.format("\n%s -- %s %s, %d, %s, %s", player.getuName(), player.getfName(), player.getlName(),
+					player.getAge(), player.getIpAddress(), player.getStatus() ? "online" : "offline"));
+		}
+		// a full page may be followed by an empty one, which is cheaper than looking ahead
+		listing.append("\n").append(page.size() == pageSize ? NEXT_CURSOR + page.get(page.size() - 1).getuName() : END_OF_LISTING);
+		return listing.toString();
+	}
+
+	// the lowest matching usernames of a bucket, kept in a bounded heap rather than sorting the whole bucket
+	private List<Player> firstMatching(CopyOnWriteArrayList<Player> players, int limit) {
+		Comparator<Player> byUsername = Comparator.comparing(Player::getuName);
+		PriorityQueue<Player> lowest = new PriorityQueue<>(limit, byUsername.reversed());
+		for(Player player : players) {
+			if(!matches(player)) continue;
+			if(lowest.size() < limit) {
+				lowest.add(player);
+			} else if(byUsername.compare(player, lowest.peek()) < 0) {
+				lowest.poll();
+				lowest.add(player);
+			}
+		}
+		List<Player> first = new ArrayList<>(lowest);
+		Collections.sort(first, byUsername);
+		return first;
+	}
+}
@@ -0,0 +1,179 @@
+package servers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Token buckets per client IP, and per username for the operations configured so, checked before a GameServer
+// operation does any work. Each bucket is a single AtomicLong holding the time at which it will be full again
+// (the generic cell rate algorithm), so a check is one CAS and a full bucket is idle and can be dropped.
+// Limits are set as -Dgameserver.rateLimit.<operation>=<per second>/<burst>, per username with a .user suffix,
+// for every other operation with gameserver.rateLimit.default, and 0 turns a limit off;
+// -Dgameserver.rateLimit=off turns them all off.
+// A .failures suffix limits a username's failed attempts, reported through recordFailure: any caller can name
+// any user, so only failing to sign in as them counts against the user, not merely trying.
+public class RateLimiter {
+
+	public static final String REJECTED_REPLY = "Rate limit exceeded";
+	private static final String PROPERTY = "gameserver.rateLimit";
+	private static final String DEFAULT_LIMIT = "20/40";
+	private static final String[][] DEFAULT_LIMITS = {
+			{ "playerSignIn", "10/20" },
+			{ "playerSignIn.failures", "1/10" },
+			{ "createPlayerAccount", "5/20" },
+			{ "adminSignIn.failures", "1/10" },
+	};
+	private static final int DEFAULT_MAX_BUCKETS = 100000;
+	private static final long SWEEP_SPACING_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private static class Limit {
+		private final String description;
+		// nanoseconds per token, and how far the bucket's full time may run ahead of now
+		private final long emissionInNanos;
+		private final long toleranceInNanos;
+
+		Limit(String description, double perSecond, int burst) {
+			this.description = description;
+			this.emissionInNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+			this.toleranceInNanos = emissionInNanos * Math.max(0, burst - 1);
+		}
+	}
+
+	private final boolean enabled;
+	private final Limit defaultLimit;
+	private final Map<String, Limit> limits = new TreeMap<>();
+	private final int maxBuckets;
+	private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, LongAdder> rejected = new ConcurrentHashMap<>();
+	private final LongAdder untracked = new LongAdder();
+	private final AtomicLong lastSweepAt = new AtomicLong(System.nanoTime());
+
+	public RateLimiter() {
+		this.enabled = !System.getProperty(PROPERTY, "on").equals("off");
+		this.defaultLimit = parse("default", System.getProperty(PROPERTY + ".default", DEFAULT_LIMIT));
+		for(String[] limit : DEFAULT_LIMITS) {
+			limits.put(limit[0], parse(limit[0], limit[1]));
+		}
+		System.getProperties().stringPropertyNames().stream()
+				.filter(name -> name.startsWith(PROPERTY + ".") && !name.equals(PROPERTY + ".default") && !name.equals(PROPERTY + ".maxClients"))
+				.forEach(name -> limits.put(name.substring(PROPERTY.length() + 1), parse(name, System.getProperty(name))));
+		this.maxBuckets = Integer.getInteger(PROPERTY + ".maxClients", DEFAULT_MAX_BUCKETS);
+	}
+
+	private static Limit parse(String name, String value) {
+		String[] parts = value.trim().split("/");
+		double perSecond = Double.parseDouble(parts[0]);
+		if(perSecond <= 0) return null;
+		int burst = parts.length > 1 ? Integer.parseInt(parts[1]) : (int) Math.ceil(perSecond);
+		return new Limit(String.format("%s/s burst %d", parts[0], burst), perSecond, burst);
+	}
+
+	// null when the call may go ahead, otherwise the reply for the caller
+	public String check(String operation, String ipAddress, String uName) {
+		if(!enabled) return null;
+		long now = System.nanoTime();
+		if(uName != null) {
+			long failureWait = waitFor(operation + ".failures", limits.get(operation + ".failures"), uName, now);
+			if(failureWait > 0) return reject(operation, "username " + uName + " after failed attempts", failureWait);
+		}
+		Limit ipLimit = limits.containsKey(operation) ? limits.get(operation) : defaultLimit;
+		long ipWait = acquire(operation, ipLimit, ipAddress, now);
+		if(ipWait > 0) return reject(operation, "IP " + ipAddress, ipWait);
+		if(uName != null) {
+			long userWait = acquire(operation + ".user", limits.get(operation + ".user"), uName, now);
+			if(userWait > 0) {
+				// the call does not go ahead, so it does not cost the IP anything either
+				refund(operation, ipLimit, ipAddress);
+				return reject(operation, "username " + uName, userWait);
+			}
+		}
+		return null;
+	}
+
+	// counts a failed attempt against the username, once the operation has found the credentials wrong
+	public void recordFailure(String operation, String uName) {
+		if(!enabled || uName == null) return;
+		acquire(operation + ".failures", limits.get(operation + ".failures"), uName, System.nanoTime());
+	}
+
+	// the nanoseconds until a token is available, without taking it
+	private long waitFor(String scope, Limit limit, String client, long now) {
+		if(limit == null) return 0;
+		AtomicLong fullAt = buckets.get(scope + "@" + client);
+		if(fullAt == null) return 0;
+		long wait = fullAt.get() - now - limit.toleranceInNanos;
+		return wait > 0 ? wait : 0;
+	}
+
+	// gives back a token taken by acquire; a bucket that was dropped or never tracked has nothing to give back
+	private void refund(String scope, Limit limit, String client) {
+		if(limit == null) return;
+		AtomicLong fullAt = buckets.get(scope + "@" + client);
+		if(fullAt != null) fullAt.addAndGet(-limit.emissionInNanos);
+	}
+
+	// 0 when a token was taken, otherwise the nanoseconds until one is available
+	private long acquire(String scope, Limit limit, String client, long now) {
+		if(limit == null) return 0;
+		String key = scope + "@" + client;
+		AtomicLong fullAt = buckets.get(key);
+		if(fullAt == null) {
+			if(buckets.size() >= maxBuckets) {
+				sweep(now);
+				// with every bucket busy, new clients are let through rather than locked out
+				if(buckets.size() >= maxBuckets) {
+					untracked.increment();
+					return 0;
+				}
+			}
+			fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+		}
+		while(true) {
+			long current = fullAt.get();
+			long start = current - now > 0 ? current : now;
+			if(start - now > limit.toleranceInNanos) return start - now - limit.toleranceInNanos;
+			if(fullAt.compareAndSet(current, start + limit.emissionInNanos)) return 0;
+		}
+	}
+
+	private String reject(String operation, String client, long waitInNanos) {
+		rejected.computeIfAbsent(operation, k -> new LongAdder()).increment();
+		return String.format(REJECTED_REPLY + " for %s from %s, retry in %d ms", operation, client,
+				Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitInNanos)));
+	}
+
+	// drops the buckets that have refilled, at most once per second unless forced by the periodic sweep.
+	// A call racing with the removal may spend a token from the dropped bucket, which only errs towards allowing it.
+	public void evictIdle() {
+		lastSweepAt.set(System.nanoTime());
+		removeFullBuckets(System.nanoTime());
+	}
+
+	private void sweep(long now) {
+		long last = lastSweepAt.get();
+		if(now - last < SWEEP_SPACING_IN_NANOS || !lastSweepAt.compareAndSet(last, now)) return;
+		removeFullBuckets(now);
+	}
+
+	private void removeFullBuckets(long now) {
+		buckets.entrySet().removeIf(bucket -> bucket.getValue().get() - now <= 0);
+	}
+
+	public String describe() {
+		if(!enabled) return "rate limits are off";
+		String configured = limits.entrySet().stream()
+				.filter(limit -> limit.getValue() != null)
+				.map(limit -> String.format("%s %s", limit.getKey(), limit.getValue().description))
+				.collect(Collectors.joining(", "));
+		String rejections = new TreeMap<>(rejected).entrySet().stream()
+				.map(rejection -> String.format("%s: %d", rejection.getKey(), rejection.getValue().sum()))
+				.collect(Collectors.joining(", "));
+		return String.format("rate limits (%s, others %s per IP) -- tracked buckets: %d, untracked calls: %d, rejected: %s",
+				configured, defaultLimit == null ? "unlimited" : defaultLimit.description, buckets.size(), untracked.sum(),
+				rejections.isEmpty() ? "none" : rejections);
+	}
+}
@@ -0,0 +1,72 @@
+package servers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import models.Player;
+import topology.CidrBlock;
+
+// Progress of an admin-triggered bulk migration of players to another region
+public class RegionMigration {
+
+	public enum State { RUNNING, COMPLETED, FAILED }
+
+	private final long migrationId;
+	private final String targetRegion, uNamePrefix, ipSubnet;
+	private final boolean offlineOnly;
+	private final CidrBlock subnet;
+	private volatile State state = State.RUNNING;
+	private volatile int matched;
+	private final AtomicInteger batchesSent = new AtomicInteger();
+	private final AtomicInteger migrated = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+
+	// uNamePrefix and ipSubnet ("a.b.c.d/n") may be "*" to match every player
+	public RegionMigration(long migrationId, String targetRegion, String uNamePrefix, String ipSubnet, boolean offlineOnly) {
+		this.migrationId = migrationId;
+		this.targetRegion = targetRegion;
+		this.uNamePrefix = uNamePrefix.equals("*") ? "" : uNamePrefix;
+		this.ipSubnet = ipSubnet;
+		this.offlineOnly = offlineOnly;
+		this.subnet = ipSubnet.equals("*") ? new CidrBlock(0, 0) : CidrBlock.parse(ipSubnet);
+	}
+
+	public boolean matches(Player player) {
+		if(player.getuName().equals("Admin")) return false;
+		if(offlineOnly && player.getStatus()) return false;
+		if(!player.getuName().startsWith(uNamePrefix)) return false;
+		return subnet.contains(player.getIpAddress());
+	}
+
+	public void setMatched(int matched) {
+		this.matched = matched;
+	}
+
+	public void recordBatch(int committed, int rejected) {
+		batchesSent.incrementAndGet();
+		migrated.addAndGet(committed);
+		failed.addAndGet(rejected);
+	}
+
+	public void finish() {
+		this.state = failed.get() == 0 ? State.COMPLETED : State.FAILED;
+	}
+
+	public String describe() {
+		return String.format("Migration #%d to %s (prefix '%s', subnet %s%s) is %s -- batches: %d, migrated: %d/%d, failed: %d",
+				migrationId, targetRegion, uNamePrefix, ipSubnet, offlineOnly ? ", offline only" : "",
+				state, batchesSent.get(), migrated.get(), matched, failed.get());
+	}
+
+	public long getMigrationId() {
+		return migrationId;
+	}
+	public String getTargetRegion() {
+		return targetRegion;
+	}
+	public boolean getOfflineOnly() {
+		return offlineOnly;
+	}
+	public State getState() {
+		return state;
+	}
+}
@@ -0,0 +1,57 @@
+package servers;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import topology.Shard;
+
+// Progress of an admin-triggered split of a region onto a newly started shard
+public class RegionSplit {
+
+	public enum State { COPYING, CUTTING_OVER, COMPLETED, FAILED }
+
+	private final long splitId;
+	private final Shard newShard;
+	private volatile State state = State.COPYING;
+	private final List<String> reports = new CopyOnWriteArrayList<>();
+
+	public RegionSplit(long splitId, Shard newShard) {
+		this.splitId = splitId;
+		this.newShard = newShard;
+	}
+
+	public void advance(State state) {
+		this.state = state;
+	}
+
+	public void report(String report) {
+		reports.add(report);
+	}
+
+	public void fail(String report) {
+		reports.add(report);
+		this.state = State.FAILED;
+	}
+
+	public String describe() {
+		StringBuilder description = new StringBuilder(String.format("Split #%d of %s onto %s is %s", 
+				splitId, newShard.getRegion().getId(), newShard.getServerName(), state));
+		for(String report : reports) {
+			description.append("\n  ").append(report);
+		}
+		return description.toString();
+	}
+
+	public long getSplitId() {
+		return splitId;
+	}
+	public Shard getNewShard() {
+		return newShard;
+	}
+	public State getState() {
+		return state;
+	}
+	public boolean isRunning() {
+		return state == State.COPYING || state == State.CUTTING_OVER;
+	}
+}
@@ -0,0 +1,226 @@
+package servers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import models.Player;
+
+// Primary side of primary-backup replication. Every store mutation becomes a numbered entry holding
+// the player's state at that point, or its removal. A backup connecting over TCP receives a snapshot
+// followed by the ordered stream, and acknowledges the last entry it has applied.
+public class ReplicationPublisher {
+
+	static final byte SNAPSHOT = 1, UPSERT = 2, REMOVE = 3;
+	private static final int MAX_QUEUED_ENTRIES = 100000;
+
+	private final String label;
+	private final int port;
+	private final Function<String, Player> lookup;
+	private final Supplier<List<Player>> snapshot;
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final Object appendLock = new Object();
+	private long sequence; // guarded by appendLock
+	private ServerSocket serverSocket;
+
+	public ReplicationPublisher(String label, int port, Function<String, Player> lookup, Supplier<List<Player>> snapshot) {
+		this.label = label;
+		this.port = port;
+		this.lookup = lookup;
+		this.snapshot = snapshot;
+	}
+
+	public void start() throws IOException {
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::acceptBackups, label + "-replication");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	// the player's state is read and numbered under one lock, so a later entry never holds older state, and under
+	// the player's own lock, taken first as the servant's mutations do, so a change in progress is not caught halfway
+	public void append(String uName) {
+		if(subscriptions.isEmpty()) return;
+		while(true) {
+			Player player = lookup.apply(uName);
+			if(player != null) player.acquireLock(); // LOCK
+			try {
+				synchronized(appendLock) {
+					// replaced in the store meanwhile, the stored one is locked instead
+					if(lookup.apply(uName) != player) continue;
+					Entry entry = new Entry(player == null ? REMOVE : UPSERT, ++sequence, System.currentTimeMillis(), uName, player == null ? null : serialize(player));
+					for(Subscription subscription : subscriptions) {
+						subscription.offer(entry);
+					}
+					return;
+				}
+			} finally {
+				if(player != null) player.releaseLock(); // UNLOCK
+			}
+		}
+	}
+
+	public String describe() {
+		long head;
+		synchronized(appendLock) {
+			head = sequence;
+		}
+		if(subscriptions.isEmpty()) return String.format("no backups attached, at #%d", head);
+		return String.format("at #%d -- ", head) + subscriptions.stream().map(Subscription::describe).collect(Collectors.joining(", "));
+	}
+
+	private void acceptBackups() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Subscription subscription;
+				// registered under the append lock so no entry falls between the snapshot and the stream
+				synchronized(appendLock) {
+					subscription = new Subscription(socket, sequence);
+					subscriptions.add(subscription);
+				}
+				subscription.start();
+			} catch(IOException e) {
+				// closed while accepting, or a backup that hung up straight away
+			}
+		}
+	}
+
+	private static byte[] serialize(Player player) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(player);
+			out.close();
+			return bytes.toByteArray();
+		} catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Entry {
+		final byte type;
+		final long sequence, timestamp;
+		final String uName;
+		final byte[] state;
+
+		Entry(byte type, long sequence, long timestamp, String uName, byte[] state) {
+			this.type = type;
+			this.sequence = sequence;
+			this.timestamp = timestamp;
+			this.uName = uName;
+			this.state = state;
+		}
+	}
+
+	// one attached backup: a sender draining its queue and a reader collecting acknowledgements
+	private class Subscription {
+		private final Socket socket;
+		private final long snapshotSequence;
+		private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>(MAX_QUEUED_ENTRIES);
+		private final ConcurrentLinkedDeque<Entry> unacknowledged = new ConcurrentLinkedDeque<>();
+		private volatile long acknowledged;
+
+		Subscription(Socket socket, long snapshotSequence) {
+			this.socket = socket;
+			this.snapshotSequence = snapshotSequence;
+		}
+
+		void start() {
+			Thread sender = new Thread(this::send, label + "-replication-sender");
+			sender.setDaemon(true);
+			sender.start();
+			Thread reader = new Thread(this::readAcknowledgements, label + "-replication-acks");
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		// a backup that falls too far behind is dropped, it reconnects and starts from a fresh snapshot
+		void offer(Entry entry) {
+			if(!queue.offer(entry)) close();
+		}
+
+		private void send() {
+			try {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				write(out, new Entry(SNAPSHOT, snapshotSequence, System.currentTimeMillis(), "", null));
+				for(Player player : snapshot.get()) {
+					byte[] state;
+					try {
+						player.acquireLock(); // LOCK
+						state = serialize(player);
+					} finally {
+						player.releaseLock(); // UNLOCK
+					}
+					write(out, new Entry(UPSERT, snapshotSequence, System.currentTimeMillis(), player.getuName(), state));
+				}
+				out.flush();
+				while(!socket.isClosed()) {
+					Entry entry = queue.take();
+					unacknowledged.add(entry);
+					write(out, entry);
+					if(queue.isEmpty()) out.flush();
+				}
+			} catch(IOException e) {
+				close();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+			}
+		}
+
+		private void write(DataOutputStream out, Entry entry) throws IOException {
+			out.writeByte(entry.type);
+			out.writeLong(entry.sequence);
+			out.writeLong(entry.timestamp);
+			out.writeUTF(entry.uName);
+			out.writeInt(entry.state == null ? -1 : entry.state.length);
+			if(entry.state != null) out.write(entry.state);
+		}
+
+		private void readAcknowledgements() {
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				while(true) {
+					acknowledged = in.readLong();
+					while(!unacknowledged.isEmpty() && unacknowledged.peekFirst().sequence <= acknowledged) {
+						unacknowledged.pollFirst();
+					}
+				}
+			} catch(IOException e) {
+				close();
+			}
+		}
+
+		private void close() {
+			subscriptions.remove(this);
+			try {
+				socket.close();
+			} catch(IOException e) {
+				// already closed
+			}
+		}
+
+		String describe() {
+			Entry oldest = unacknowledged.peekFirst();
+			long lagInMillis = oldest == null ? 0 : System.currentTimeMillis() - oldest.timestamp;
+			return String.format("backup %s acked #%d, %d entries queued, %d ms behind", 
+					socket.getRemoteSocketAddress(), acknowledged, queue.size() + unacknowledged.size(), lagInMillis);
+		}
+	}
+}
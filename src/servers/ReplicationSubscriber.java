@@ -0,0 +1,127 @@
+package servers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+import models.Player;
+
+// Backup side of primary-backup replication: follows the primary's entry stream, reconnecting
+// (and starting over from a snapshot) whenever the connection drops
+public class ReplicationSubscriber {
+
+	public interface ReplicaStore {
+		// drops every replicated player ahead of a snapshot
+		void reset();
+		// player is null when the username was removed on the primary
+		void apply(String uName, Player player);
+	}
+
+	private static final int RECONNECT_INTERVAL_IN_MILLIS = 1000;
+
+	private final String host;
+	private final int port;
+	private final ReplicaStore store;
+	private final Consumer<String> log;
+	private volatile boolean stopped;
+	private volatile boolean connected;
+	private volatile Socket socket;
+	private volatile long appliedSequence;
+	private volatile long lagInMillis;
+
+	public ReplicationSubscriber(String host, int port, ReplicaStore store, Consumer<String> log) {
+		this.host = host;
+		this.port = port;
+		this.store = store;
+		this.log = log;
+	}
+
+	public void start() {
+		Thread follower = new Thread(this::follow, "replication-follower");
+		follower.setDaemon(true);
+		follower.start();
+	}
+
+	public void stop() {
+		stopped = true;
+		Socket current = socket;
+		if(current != null) {
+			try {
+				current.close();
+			} catch(IOException e) {
+				// already closed
+			}
+		}
+	}
+
+	private void follow() {
+		while(!stopped) {
+			try(Socket current = new Socket(host, port)) {
+				socket = current;
+				current.setTcpNoDelay(true);
+				connected = true;
+				log.accept(String.format("Following primary at %s:%d", host, port));
+				DataInputStream in = new DataInputStream(new BufferedInputStream(current.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(current.getOutputStream()));
+				while(!stopped) {
+					byte type = in.readByte();
+					long sequence = in.readLong();
+					long timestamp = in.readLong();
+					String uName = in.readUTF();
+					int length = in.readInt();
+					byte[] state = null;
+					if(length >= 0) {
+						state = new byte[length];
+						in.readFully(state);
+					}
+					
+					if(type == ReplicationPublisher.SNAPSHOT) {
+						store.reset();
+					} else {
+						store.apply(uName, type == ReplicationPublisher.UPSERT ? deserialize(state) : null);
+					}
+					appliedSequence = sequence;
+					lagInMillis = Math.max(0, System.currentTimeMillis() - timestamp);
+					// acknowledge once the backlog read so far has been applied
+					if(in.available() == 0) {
+						out.writeLong(sequence);
+						out.flush();
+					}
+				}
+			} catch(IOException e) {
+				if(connected) log.accept(String.format("Lost primary at %s:%d -- %s", host, port, e.getMessage()));
+			}
+			connected = false;
+			
+			try {
+				if(!stopped) Thread.sleep(RECONNECT_INTERVAL_IN_MILLIS);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private static Player deserialize(byte[] state) throws IOException {
+		try {
+			return (Player) new ObjectInputStream(new ByteArrayInputStream(state)).readObject();
+		} catch(ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+	}
+
+	public String describe() {
+		return String.format("%s primary at %s:%d -- applied #%d, %d ms behind", 
+				connected ? "following" : "waiting for", host, port, appliedSequence, lagInMillis);
+	}
+
+	public long getAppliedSequence() {
+		return appliedSequence;
+	}
+}
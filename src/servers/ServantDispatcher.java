@@ -0,0 +1,162 @@
+package servers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import metrics.LatencyHistogram;
+import metrics.OperationMetrics;
+
+// Runs servant calls on a bounded pool behind a bounded queue, and answers "server busy" instead of letting
+// requests pile up. Queueing delay is controlled CoDel style: a call may normally wait up to one interval,
+// but once no call in the last interval got through in under the target delay the queue is standing,
+// and every call that has waited longer than the target is shed until the delay drops again.
+// Calls arriving behind an overdue call are shed at once, so a busy reply never waits on stuck workers.
+// Sized with -Dgameserver.dispatch.threads, .queue, .targetMillis and .intervalMillis.
+public class ServantDispatcher {
+
+	public static final String BUSY_REPLY = "Server busy";
+
+	private final String label;
+	private final int threads;
+	private final int queueCapacity;
+	private final long targetNanos;
+	private final long intervalNanos;
+	private final ThreadPoolExecutor workers;
+
+	// guarded by this: the lowest queueing delay seen in the current interval
+	private long windowMinimum = Long.MAX_VALUE;
+	private long windowEndsAt;
+	private volatile boolean standingQueue;
+
+	private final LongAdder dispatched = new LongAdder();
+	private final LongAdder shedQueueFull = new LongAdder();
+	private final LongAdder shedQueueDelay = new LongAdder();
+	private final LatencyHistogram queueDelays = new LatencyHistogram();
+
+	public ServantDispatcher(String label) {
+		this.label = label;
+		this.threads = Integer.getInteger("gameserver.dispatch.threads", 16);
+		this.queueCapacity = Integer.getInteger("gameserver.dispatch.queue", 256);
+		this.targetNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("gameserver.dispatch.targetMillis", 5));
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("gameserver.dispatch.intervalMillis", 100));
+		AtomicInteger threadCount = new AtomicInteger();
+		this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, String.format("dispatch-%s-%d", label, threadCount.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private class QueuedCall implements Runnable {
+		private static final int QUEUED = 0, RUNNING = 1, SHED = 2;
+
+		private final String operation;
+		private final Supplier<String> call;
+		private final long queuedAt = System.nanoTime();
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+		private final CompletableFuture<String> reply = new CompletableFuture<>();
+
+		QueuedCall(String operation, Supplier<String> call) {
+			this.operation = operation;
+			this.call = call;
+		}
+
+		@Override
+		public void run() {
+			if(!state.compareAndSet(QUEUED, RUNNING)) return;
+			long now = System.nanoTime();
+			long queueDelay = now - queuedAt;
+			queueDelays.record(queueDelay);
+			if(shouldShed(queueDelay, now)) {
+				shedQueueDelay.increment();
+				reply.complete(busy(operation, String.format("after %d ms in queue", TimeUnit.NANOSECONDS.toMillis(queueDelay))));
+				return;
+			}
+			dispatched.increment();
+			try {
+				reply.complete(call.get());
+			} catch(Throwable e) {
+				reply.completeExceptionally(e);
+			}
+		}
+
+		// the waiting caller gives up on a call no worker has picked up within the interval
+		boolean shed() {
+			if(!state.compareAndSet(QUEUED, SHED)) return false;
+			workers.remove(this);
+			return true;
+		}
+	}
+
+	// called on the ORB's thread, which waits for a worker to run the call or shed it
+	public String dispatch(String operation, Supplier<String> call) {
+		QueuedCall queuedCall = new QueuedCall(operation, call);
+		// a queue whose oldest call is already overdue turns new calls away at once
+		Runnable oldest = workers.getQueue().peek();
+		if(oldest != null) {
+			long oldestDelay = queuedCall.queuedAt - ((QueuedCall) oldest).queuedAt;
+			if(oldestDelay > (standingQueue ? targetNanos : intervalNanos)) {
+				shedQueueDelay.increment();
+				return busy(operation, String.format("behind a call queued for %d ms", TimeUnit.NANOSECONDS.toMillis(oldestDelay)));
+			}
+		}
+		try {
+			workers.execute(queuedCall);
+		} catch(RejectedExecutionException e) {
+			shedQueueFull.increment();
+			return busy(operation, String.format("with %d requests queued", queueCapacity));
+		}
+
+		try {
+			try {
+				return queuedCall.reply.get(intervalNanos, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				if(queuedCall.shed()) {
+					shedQueueDelay.increment();
+					return busy(operation, String.format("after %d ms in queue", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedCall.queuedAt)));
+				}
+				// already running, it is not shed anymore
+				return queuedCall.reply.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			queuedCall.shed();
+			return busy(operation, "while interrupted");
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private synchronized boolean shouldShed(long queueDelay, long now) {
+		if(now - windowEndsAt >= 0) {
+			standingQueue = windowMinimum > targetNanos && windowMinimum != Long.MAX_VALUE;
+			windowMinimum = queueDelay;
+			windowEndsAt = now + intervalNanos;
+		} else {
+			windowMinimum = Math.min(windowMinimum, queueDelay);
+		}
+		return queueDelay > (standingQueue ? targetNanos : intervalNanos);
+	}
+
+	private String busy(String operation, String reason) {
+		return String.format("%s: %s shed %s %s, retry later", BUSY_REPLY, label, operation, reason);
+	}
+
+	public String describe() {
+		LatencyHistogram.Snapshot delays = queueDelays.snapshot();
+		return String.format("dispatch (%d threads, %d queued max, target %d ms) -- dispatched: %d, shed queue full: %d, shed queue delay: %d, active: %d, queued: %d, standing queue: %s, queue delay p50: %.3f ms, p99: %.3f ms, max: %.3f ms",
+				threads, queueCapacity, TimeUnit.NANOSECONDS.toMillis(targetNanos), dispatched.sum(), shedQueueFull.sum(), shedQueueDelay.sum(),
+				workers.getActiveCount(), workers.getQueue().size(), standingQueue ? "yes" : "no",
+				OperationMetrics.toMillis(delays.percentile(50)), OperationMetrics.toMillis(delays.percentile(99)), OperationMetrics.toMillis(delays.getMax()));
+	}
+}
@@ -0,0 +1,74 @@
+package servers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import topology.ConsistentHashRing;
+import topology.Shard;
+
+// Source side of a live split: which usernames move to the new shard, which of those changed
+// since they were last copied, and how long sign-ins took while the split was running
+public class ShardSplit {
+
+	private static final int MAX_SIGN_IN_SAMPLES = 100000;
+
+	private final ConsistentHashRing targetRing;
+	private final Shard target;
+	private final Set<String> changedUsernames = ConcurrentHashMap.newKeySet();
+	private final long[] signInNanos = new long[MAX_SIGN_IN_SAMPLES];
+	private final AtomicInteger signIns = new AtomicInteger();
+
+	public ShardSplit(Shard target) {
+		this.target = target;
+		this.targetRing = new ConsistentHashRing(target.getRegion().getId(), target.getIndex() + 1);
+	}
+
+	public boolean isMoving(String uName) {
+		return !uName.equals("Admin") && targetRing.shardFor(uName) == target.getIndex();
+	}
+
+	public void recordMutation(String uName) {
+		if(isMoving(uName)) changedUsernames.add(uName);
+	}
+
+	// hands back the usernames changed since the last drain and forgets them
+	public Set<String> drainMutations() {
+		Set<String> drained = new HashSet<>();
+		for(Iterator<String> changed = changedUsernames.iterator(); changed.hasNext();) {
+			drained.add(changed.next());
+			changed.remove();
+		}
+		return drained;
+	}
+
+	public void requeueMutations(Set<String> uNames) {
+		changedUsernames.addAll(uNames);
+	}
+
+	public void recordSignIn(long nanos) {
+		int sample = signIns.getAndIncrement();
+		if(sample < MAX_SIGN_IN_SAMPLES) signInNanos[sample] = nanos;
+	}
+
+	public String describeSignInLatency() {
+		int samples = Math.min(signIns.get(), MAX_SIGN_IN_SAMPLES);
+		if(samples == 0) return "no sign-ins during the split";
+		long[] sorted = Arrays.copyOf(signInNanos, samples);
+		Arrays.sort(sorted);
+		return String.format("sign-ins during the split: %d, p50: %.2f ms, p99: %.2f ms, max: %.2f ms", signIns.get(),
+				toMillis(sorted[(samples - 1) / 2]), toMillis(sorted[(int) Math.ceil(samples * 0.99) - 1]), toMillis(sorted[samples - 1]));
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public Shard getTarget() {
+		return target;
+	}
+}
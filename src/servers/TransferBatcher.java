@@ -0,0 +1,78 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import models.Player;
+
+// Coalesces account transfers bound for the same destination into one TransferBatch message.
+// A batch leaves when it is full or when the window since its first transfer has elapsed.
+public class TransferBatcher {
+
+	public interface BatchSender {
+		// returns the remote result per username, missing usernames are treated as failures
+		Map<String, String> send(ArrayList<Player> players);
+	}
+
+	private final BatchSender batchSender;
+	private final int maxBatchSize;
+	private final long windowInMillis;
+	private final ScheduledExecutorService scheduler;
+	private final Executor sender;
+
+	private final Object queueLock = new Object();
+	private ArrayList<Player> queuedPlayers = new ArrayList<>();
+	private ArrayList<CompletableFuture<String>> queuedResults = new ArrayList<>();
+
+	public TransferBatcher(BatchSender batchSender, int maxBatchSize, long windowInMillis, ScheduledExecutorService scheduler, Executor sender) {
+		this.batchSender = batchSender;
+		this.maxBatchSize = maxBatchSize;
+		this.windowInMillis = windowInMillis;
+		this.scheduler = scheduler;
+		this.sender = sender;
+	}
+
+	public CompletableFuture<String> submit(Player player) {
+		CompletableFuture<String> result = new CompletableFuture<>();
+		int queued;
+		synchronized(queueLock) {
+			queuedPlayers.add(player);
+			queuedResults.add(result);
+			queued = queuedPlayers.size();
+		}
+
+		if(queued >= maxBatchSize) {
+			sender.execute(this::flush);
+		} else if(queued == 1) {
+			scheduler.schedule(() -> sender.execute(this::flush), windowInMillis, TimeUnit.MILLISECONDS);
+		}
+		return result;
+	}
+
+	private void flush() {
+		ArrayList<Player> players;
+		ArrayList<CompletableFuture<String>> results;
+		synchronized(queueLock) {
+			if(queuedPlayers.isEmpty()) return;
+			players = queuedPlayers;
+			results = queuedResults;
+			queuedPlayers = new ArrayList<>();
+			queuedResults = new ArrayList<>();
+		}
+
+		try {
+			Map<String, String> replies = batchSender.send(players);
+			for(int i = 0; i < players.size(); i++) {
+				String uName = players.get(i).getuName();
+				String reply = replies.get(uName);
+				results.get(i).complete(reply != null ? reply : String.format("No transfer result received for player with username %s", uName));
+			}
+		} catch(RuntimeException e) {
+			results.forEach(result -> result.completeExceptionally(e));
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package servers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+// Bloom filter of the usernames a servant holds, so that names it has never seen are turned away without
+// scanning the player store. Names are added as players are stored, under the store's write lock, and the
+// filter is rebuilt from the store on a schedule to forget removed players and to grow with the store.
+// A name is never missing from the filter while its player is stored: during a rebuild new names go into
+// both the live filter and the one being built, which only replaces the live one under the same lock.
+// Every filter has a generation, and the names added to it are queued so they can be published to peers.
+public class UsernameFilter {
+
+	private static final double TARGET_FALSE_POSITIVE_RATE = 0.01;
+	private static final int MIN_CAPACITY = 1024;
+
+	public static class Bits {
+		private final long generation;
+		private final AtomicLongArray words;
+		private final int bitCount;
+		private final int hashCount;
+		private final int capacity;
+		private final LongAdder insertions = new LongAdder();
+
+		// sized for twice the expected names so the filter stays near its target rate until the next rebuild
+		Bits(long generation, int expectedNames) {
+			this.generation = generation;
+			this.capacity = Math.max(MIN_CAPACITY, expectedNames * 2);
+			long bits = (long) Math.ceil(-capacity * Math.log(TARGET_FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+			this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, bits);
+			this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+			this.words = new AtomicLongArray((bitCount + 63) / 64);
+		}
+
+		// a copy of another servant's filter, received as its words
+		public Bits(long generation, int bitCount, int hashCount, long[] words) {
+			this.generation = generation;
+			this.bitCount = bitCount;
+			this.hashCount = hashCount;
+			this.capacity = 0;
+			this.words = new AtomicLongArray(words);
+		}
+
+		public void add(String uName) {
+			add(uName, 0, uName.length());
+		}
+
+		// the name between start and end of a longer text, without copying it out
+		public void add(CharSequence text, int start, int end) {
+			long hash = hash64(text, start, end);
+			int first = (int) hash, second = (int) (hash >>> 32) | 1;
+			for(int i = 0; i < hashCount; i++) {
+				int bit = Math.floorMod(first + i * second, bitCount);
+				long mask = 1L << bit;
+				int word = bit >>> 6;
+				long current;
+				while(((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+			}
+			insertions.increment();
+		}
+
+		public boolean mightContain(String uName) {
+			long hash = hash64(uName, 0, uName.length());
+			int first = (int) hash, second = (int) (hash >>> 32) | 1;
+			for(int i = 0; i < hashCount; i++) {
+				int bit = Math.floorMod(first + i * second, bitCount);
+				if((words.get(bit >>> 6) & (1L << bit)) == 0) return false;
+			}
+			return true;
+		}
+
+		public long[] copyWords() {
+			long[] copy = new long[words.length()];
+			for(int i = 0; i < copy.length; i++) {
+				copy[i] = words.get(i);
+			}
+			return copy;
+		}
+
+		public long getGeneration() {
+			return generation;
+		}
+		public int getBitCount() {
+			return bitCount;
+		}
+		public int getHashCount() {
+			return hashCount;
+		}
+
+		// the chance that an unknown name finds all its bits set, from the share of bits that are set
+		public double estimatedFalsePositiveRate() {
+			long set = 0;
+			for(int i = 0; i < words.length(); i++) {
+				set += Long.bitCount(words.get(i));
+			}
+			return Math.pow((double) set / bitCount, hashCount);
+		}
+
+		// 64-bit FNV-1a over the name's characters, split into two hashes for double hashing
+		private static long hash64(CharSequence uName, int start, int end) {
+			long hash = 0xcbf29ce484222325L;
+			for(int i = start; i < end; i++) {
+				hash ^= uName.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			return hash;
+		}
+	}
+
+	private final Supplier<Iterator<String>> storedUsernames;
+	private final Lock storeLock;
+	private final ScheduledExecutorService scheduler;
+	private volatile Bits live;
+	// guarded by storeLock
+	private Bits building;
+	private long lastGeneration = System.currentTimeMillis();
+	// names added since they were last drained for publishing, already set in the live filter
+	private final ConcurrentLinkedQueue<String> added = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+	private final LongAdder absent = new LongAdder();
+	private final LongAdder possiblyPresent = new LongAdder();
+	private volatile long rebuiltAt = System.currentTimeMillis();
+
+	public UsernameFilter(Supplier<Iterator<String>> storedUsernames, Lock storeLock, ScheduledExecutorService scheduler, long rebuildIntervalInSeconds) {
+		this.storedUsernames = storedUsernames;
+		this.storeLock = storeLock;
+		this.scheduler = scheduler;
+		this.live = new Bits(lastGeneration, 0);
+		scheduler.scheduleAtFixedRate(this::rebuild, rebuildIntervalInSeconds, rebuildIntervalInSeconds, TimeUnit.SECONDS);
+	}
+
+	// to be called with the store lock held, before the player is stored
+	public void add(String uName) {
+		Bits current = this.live;
+		current.add(uName);
+		if(building != null) building.add(uName);
+		added.add(uName);
+		// a filter filled past its capacity loses accuracy quickly, so it is rebuilt larger right away
+		if(current.insertions.sum() > current.capacity && rebuildScheduled.compareAndSet(false, true)) {
+			scheduler.execute(this::rebuild);
+		}
+	}
+
+	public boolean mightContain(String uName) {
+		boolean known = live.mightContain(uName);
+		(known ? possiblyPresent : absent).increment();
+		return known;
+	}
+
+	public void rebuild() {
+		int expected = (int) Math.min(Integer.MAX_VALUE / 2, live.insertions.sum());
+		storeLock.lock(); // LOCK
+		Bits next;
+		try {
+			// generations increase across restarts too, so peers can tell a new filter from an old one
+			lastGeneration = Math.max(lastGeneration + 1, System.currentTimeMillis());
+			next = new Bits(lastGeneration, expected);
+			building = next;
+		} finally {
+			storeLock.unlock(); // UNLOCK
+		}
+		for(Iterator<String> uNames = storedUsernames.get(); uNames.hasNext(); ) {
+			next.add(uNames.next());
+		}
+		storeLock.lock(); // LOCK
+		try {
+			live = next;
+			building = null;
+		} finally {
+			storeLock.unlock(); // UNLOCK
+		}
+		rebuiltAt = System.currentTimeMillis();
+		rebuildScheduled.set(false);
+	}
+
+	public Bits getLive() {
+		return live;
+	}
+
+	public List<String> drainAdded() {
+		List<String> drained = new ArrayList<>();
+		for(String uName = added.poll(); uName != null; uName = added.poll()) {
+			drained.add(uName);
+		}
+		return drained;
+	}
+
+	public String describe() {
+		Bits current = this.live;
+		return String.format("username filter -- names: %d of %d capacity, %d hashes, %d KiB, estimated false positive rate: %.4f%%, lookups answered absent: %d, possibly present: %d, rebuilt %d s ago",
+				current.insertions.sum(), current.capacity, current.hashCount, current.words.length() * 8L / 1024,
+				current.estimatedFalsePositiveRate() * 100, absent.sum(), possiblyPresent.sum(), (System.currentTimeMillis() - rebuiltAt) / 1000);
+	}
+}
@@ -0,0 +1,119 @@
+package tools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import servers.AuditLog;
+
+// Prints a servant's binary audit log as text, one request per line, optionally only one user's,
+// one operation's or those in a time range, given as yyyy-MM-ddTHH:mm[:ss] local time or epoch milliseconds.
+// Usage: AuditLogDecoder <server_logs/label-audit.bin> [--user uName] [--op operation] [--from time] [--to time]
+public class AuditLogDecoder {
+
+	private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss.SSSSSS");
+
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0 || args.length % 2 == 0) usage();
+		String user = null;
+		AuditLog.Operation operation = null;
+		long fromNanos = Long.MIN_VALUE, toNanos = Long.MAX_VALUE;
+		try {
+			for(int i = 1; i < args.length; i += 2) {
+				switch(args[i]) {
+					case "--user": user = args[i + 1]; break;
+					case "--op":
+						operation = AuditLog.Operation.forName(args[i + 1]);
+						if(operation == null) usage();
+						break;
+					case "--from": fromNanos = parseTime(args[i + 1]); break;
+					case "--to": toNanos = parseTime(args[i + 1]); break;
+					default: usage();
+				}
+			}
+		} catch(DateTimeParseException | NumberFormatException e) {
+			usage();
+		}
+
+		long printed = 0, read = 0;
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16))) {
+			if(in.readInt() != AuditLog.MAGIC) {
+				System.err.println(String.format("ERROR: %s is not a binary audit log", args[0]));
+				System.exit(1);
+			}
+			Map<Integer, String> names = new HashMap<>();
+			StringBuilder line = new StringBuilder();
+			while(true) {
+				long epochNanos;
+				try {
+					epochNanos = in.readLong();
+				} catch(EOFException e) {
+					break;
+				}
+				short code = in.readShort();
+				int result = in.readByte();
+				in.readByte();
+				int first = in.readInt(), second = in.readInt(), third = in.readInt();
+
+				if(code == AuditLog.SESSION) {
+					names.clear();
+					continue;
+				}
+				if(code == AuditLog.DEFINE) {
+					byte[] bytes = new byte[(second + 7) & ~7];
+					in.readFully(bytes);
+					names.put(first, new String(bytes, 0, second, StandardCharsets.UTF_8));
+					continue;
+				}
+				read++;
+				if(epochNanos < fromNanos || epochNanos > toNanos) continue;
+				if(operation != null && operation.getCode() != code) continue;
+				String uName = names.getOrDefault(first, "?");
+				if(user != null && !user.equals(uName)) continue;
+
+				AuditLog.Operation known = AuditLog.Operation.forCode(code);
+				AuditLog.Result outcome = AuditLog.Result.forCode(result);
+				line.setLength(0);
+				line.append(TIMESTAMP.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault())))
+						.append(' ').append(known == null ? "op#" + code : known.getName())
+						.append(' ').append(outcome == null ? "result#" + result : outcome.name())
+						.append(' ').append(uName)
+						.append(' ').append(names.getOrDefault(second, "?"))
+						.append(' ').append(String.format("%.3f ms", third / 1000.0));
+				System.out.println(line);
+				printed++;
+			}
+		} catch(FileNotFoundException e) {
+			System.err.println("ERROR: " + e.getMessage());
+			System.exit(1);
+		} catch(EOFException e) {
+			System.err.println("-- the log ends inside a record, it was cut short while being written");
+		}
+		System.err.println(String.format("-- %d of %d requests", printed, read));
+	}
+
+	// epoch nanoseconds of a local yyyy-MM-ddTHH:mm[:ss] time or of epoch milliseconds
+	static long parseTime(String time) {
+		if(time.matches("\\d+")) return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(time));
+		Instant instant = LocalDateTime.parse(time).atZone(ZoneId.systemDefault()).toInstant();
+		return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+	}
+
+	private static void usage() {
+		System.err.println("Usage: AuditLogDecoder <audit log> [--user uName] [--op operation] [--from time] [--to time]"
+				+ " -- times as yyyy-MM-ddTHH:mm[:ss] or epoch milliseconds");
+		System.exit(1);
+	}
+}
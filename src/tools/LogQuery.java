@@ -0,0 +1,88 @@
+package tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import servers.LogSegments;
+
+// Prints the entries of a servant's segmented text log that mention a user (or any other word, such as an
+// IP address) within a time window, reading only the segments whose index covers the window and whose
+// filter might hold the word, from the indexed offset nearest the window's start.
+// Usage: LogQuery <server_logs/label> [--user uName] [--from time] [--to time]
+public class LogQuery {
+
+	public static void main(String[] args) {
+		if(args.length == 0 || args.length % 2 == 0) usage();
+		String user = null;
+		long from = Long.MIN_VALUE, to = Long.MAX_VALUE;
+		try {
+			for(int i = 1; i < args.length; i += 2) {
+				switch(args[i]) {
+					case "--user": user = args[i + 1]; break;
+					case "--from": from = TimeUnit.NANOSECONDS.toMillis(AuditLogDecoder.parseTime(args[i + 1])); break;
+					case "--to": to = TimeUnit.NANOSECONDS.toMillis(AuditLogDecoder.parseTime(args[i + 1])); break;
+					default: usage();
+				}
+			}
+		} catch(DateTimeParseException | NumberFormatException e) {
+			usage();
+		}
+		File directory = new File(args[0]);
+		if(!directory.isDirectory()) {
+			System.err.println(String.format("ERROR: %s is not a log segment directory", args[0]));
+			System.exit(1);
+		}
+
+		File[] segments = LogSegments.segments(directory);
+		int outsideWindow = 0, withoutUser = 0, unindexed = 0;
+		long bytesRead = 0, found = 0;
+		long[] matches = new long[1];
+		for(File segment : segments) {
+			try {
+				LogSegments.Index index = LogSegments.Index.read(segment);
+				long start = 0, end = Long.MAX_VALUE;
+				if(index == null) {
+					unindexed++;
+				} else if(!index.overlaps(from, to)) {
+					outsideWindow++;
+					continue;
+				} else if(user != null && !index.mightMention(user)) {
+					withoutUser++;
+					continue;
+				} else {
+					start = index.offsetBefore(from);
+					end = index.offsetAfter(to);
+				}
+				String word = user;
+				long windowFrom = from, windowTo = to;
+				matches[0] = 0;
+				bytesRead += LogSegments.readEntries(segment, start, end, entry -> {
+					if(entry.timestamp < windowFrom || entry.timestamp > windowTo) return;
+					if(word != null && !mentions(entry.text, word)) return;
+					System.out.println(entry.text);
+					matches[0]++;
+				});
+				found += matches[0];
+			} catch(IOException e) {
+				System.err.println(String.format("-- could not read %s: %s", segment.getName(), e.getMessage()));
+			}
+		}
+		System.err.println(String.format("-- %d entries from %d of %d segments, skipped %d outside the window and %d without the user,"
+				+ " %d still being written read whole -- %d KB read", found, segments.length - outsideWindow - withoutUser, segments.length,
+				outsideWindow, withoutUser, unindexed, bytesRead >> 10));
+	}
+
+	private static boolean mentions(String text, String word) {
+		boolean[] mentioned = new boolean[1];
+		LogSegments.forEachWord(text, candidate -> mentioned[0] |= candidate.equals(word));
+		return mentioned[0];
+	}
+
+	private static void usage() {
+		System.err.println("Usage: LogQuery <server_logs/label> [--user uName] [--from time] [--to time]"
+				+ " -- times as yyyy-MM-ddTHH:mm[:ss] or epoch milliseconds");
+		System.exit(1);
+	}
+}
@@ -0,0 +1,46 @@
+package topology;
+
+// An IPv4 network in a.b.c.d/n notation
+public class CidrBlock {
+
+	private final int network;
+	private final int prefixLength;
+
+	public CidrBlock(int address, int prefixLength) {
+		if(prefixLength < 0 || prefixLength > 32) throw new IllegalArgumentException("Bad prefix length: " + prefixLength);
+		this.prefixLength = prefixLength;
+		this.network = address & IPv4.mask(prefixLength);
+	}
+
+	// "a.b.c.d/n", a bare address is taken as a /32
+	public static CidrBlock parse(String cidr) {
+		int slash = cidr.indexOf('/');
+		if(slash < 0) return new CidrBlock(IPv4.parseOrThrow(cidr.trim()), 32);
+		try {
+			return new CidrBlock(IPv4.parseOrThrow(cidr.substring(0, slash).trim()), Integer.parseInt(cidr.substring(slash + 1).trim()));
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Bad CIDR block: " + cidr);
+		}
+	}
+
+	public boolean contains(int address) {
+		return (address & IPv4.mask(prefixLength)) == network;
+	}
+
+	public boolean contains(String ipAddress) {
+		long address = IPv4.parse(ipAddress);
+		return address != IPv4.INVALID && contains((int) address);
+	}
+
+	public int getNetwork() {
+		return network;
+	}
+	public int getPrefixLength() {
+		return prefixLength;
+	}
+
+	@Override
+	public String toString() {
+		return IPv4.format(network) + "/" + prefixLength;
+	}
+}
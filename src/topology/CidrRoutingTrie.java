@@ -0,0 +1,67 @@
+package topology;
+
+import java.util.Arrays;
+
+// Longest-prefix-match binary trie over IPv4 CIDR blocks. Nodes live in flat arrays so a lookup
+// is at most 32 array reads and never allocates. Build it once, then share it read-only.
+public class CidrRoutingTrie<V> {
+
+	private static final int NO_CHILD = 0; // the root is node 0 and is never anyone's child
+
+	private int[] children = new int[2 * 64];
+	private Object[] routes = new Object[64];
+	private int nodeCount = 1;
+	private int routeCount = 0;
+
+	public void insert(CidrBlock block, V value) {
+		insert(block.getNetwork(), block.getPrefixLength(), value);
+	}
+
+	public void insert(int network, int prefixLength, V value) {
+		if(value == null) throw new IllegalArgumentException("Route value may not be null");
+		int node = 0;
+		for(int depth = 0; depth < prefixLength; depth++) {
+			int slot = 2 * node + ((network >>> (31 - depth)) & 1);
+			if(children[slot] == NO_CHILD) {
+				int child = newNode(); // may grow the arrays, so allocate before indexing into them
+				children[slot] = child;
+			}
+			node = children[slot];
+		}
+		if(routes[node] == null) routeCount++;
+		routes[node] = value;
+	}
+
+	private int newNode() {
+		if(nodeCount == routes.length) {
+			routes = Arrays.copyOf(routes, routes.length * 2);
+			children = Arrays.copyOf(children, children.length * 2);
+		}
+		return nodeCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V lookup(int address) {
+		Object best = routes[0];
+		int node = 0;
+		for(int bit = 31; bit >= 0; bit--) {
+			node = children[2 * node + ((address >>> bit) & 1)];
+			if(node == NO_CHILD) break;
+			if(routes[node] != null) best = routes[node];
+		}
+		return (V) best;
+	}
+
+	// null for unparseable addresses or addresses outside every block
+	public V lookup(CharSequence ipAddress) {
+		long address = IPv4.parse(ipAddress);
+		return address == IPv4.INVALID ? null : lookup((int) address);
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	public int getRouteCount() {
+		return routeCount;
+	}
+}
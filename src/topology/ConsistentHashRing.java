@@ -0,0 +1,75 @@
+package topology;
+
+import java.util.Arrays;
+
+// Maps keys onto shards 0..N-1 through a ring of virtual nodes, so changing N only moves
+// about 1/N of the keys. Every process building a ring for the same name and shard count
+// gets the same ring.
+public class ConsistentHashRing {
+
+	public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+	private final String name;
+	private final int shardCount;
+	private final long[] points;
+	private final int[] owners;
+
+	public ConsistentHashRing(String name, int shardCount) {
+		this(name, shardCount, DEFAULT_VIRTUAL_NODES);
+	}
+
+	public ConsistentHashRing(String name, int shardCount, int virtualNodes) {
+		if(shardCount < 1) throw new IllegalArgumentException("A ring needs at least one shard");
+		this.name = name;
+		this.shardCount = shardCount;
+
+		int size = shardCount * virtualNodes;
+		long[] hashes = new long[size];
+		for(int shard = 0, i = 0; shard < shardCount; shard++) {
+			for(int node = 0; node < virtualNodes; node++, i++) {
+				hashes[i] = hash(name + "-" + shard + "#" + node);
+			}
+		}
+		// sort points by hash, keeping track of which shard owns each one
+		Integer[] order = new Integer[size];
+		for(int i = 0; i < size; i++) order[i] = i;
+		Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+		this.points = new long[size];
+		this.owners = new int[size];
+		for(int i = 0; i < size; i++) {
+			points[i] = hashes[order[i]];
+			owners[i] = order[i] / virtualNodes;
+		}
+	}
+
+	public int shardFor(CharSequence key) {
+		if(shardCount == 1) return 0;
+		long h = hash(key);
+		int index = Arrays.binarySearch(points, h);
+		if(index < 0) index = -index - 1;
+		if(index == points.length) index = 0;
+		return owners[index];
+	}
+
+	// 64-bit FNV-1a finished with the MurmurHash3 mixer
+	public static long hash(CharSequence key) {
+		long h = 0xcbf29ce484222325L;
+		for(int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public String getName() {
+		return name;
+	}
+	public int getShardCount() {
+		return shardCount;
+	}
+}
@@ -0,0 +1,56 @@
+package topology;
+
+// Dotted-quad IPv4 addresses as ints, parsed without allocating
+public final class IPv4 {
+
+	public static final long INVALID = -1L;
+
+	private IPv4() {}
+
+	// the address as an unsigned value in the low 32 bits, or INVALID
+	public static long parse(CharSequence ipAddress) {
+		if(ipAddress == null) return INVALID;
+		int length = ipAddress.length();
+		if(length < 7 || length > 15) return INVALID;
+
+		long address = 0;
+		int octet = 0;
+		int digits = 0;
+		int dots = 0;
+		for(int i = 0; i < length; i++) {
+			char c = ipAddress.charAt(i);
+			if(c >= '0' && c <= '9') {
+				if(++digits > 3) return INVALID;
+				octet = octet * 10 + (c - '0');
+				if(octet > 255) return INVALID;
+			} else if(c == '.') {
+				if(digits == 0 || ++dots > 3) return INVALID;
+				address = (address << 8) | octet;
+				octet = 0;
+				digits = 0;
+			} else {
+				return INVALID;
+			}
+		}
+		if(digits == 0 || dots != 3) return INVALID;
+		return (address << 8) | octet;
+	}
+
+	public static boolean isValid(CharSequence ipAddress) {
+		return parse(ipAddress) != INVALID;
+	}
+
+	public static int parseOrThrow(String ipAddress) {
+		long address = parse(ipAddress);
+		if(address == INVALID) throw new IllegalArgumentException("Bad IPv4 address: " + ipAddress);
+		return (int) address;
+	}
+
+	public static int mask(int prefixLength) {
+		return prefixLength == 0 ? 0 : -1 << (32 - prefixLength);
+	}
+
+	public static String format(int address) {
+		return String.format("%d.%d.%d.%d", (address >>> 24) & 0xFF, (address >>> 16) & 0xFF, (address >>> 8) & 0xFF, address & 0xFF);
+	}
+}
@@ -0,0 +1,99 @@
+package topology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Region {
+
+	private final String id;
+	private final List<CidrBlock> cidrBlocks;
+	private final String defaultIp;
+	private final String host;
+	private final int udpPort;
+	private final int shardPortStride;
+	private final boolean replicated;
+	private final int backupPortOffset;
+	private final int replicationPortOffset;
+	private final int eventPortOffset;
+	private volatile ConsistentHashRing ring;
+
+	public Region(String id, List<CidrBlock> cidrBlocks, String defaultIp, String host, int udpPort, int shardCount, int shardPortStride,
+			boolean replicated, int backupPortOffset, int replicationPortOffset, int eventPortOffset) {
+		this.id = id;
+		this.cidrBlocks = Collections.unmodifiableList(cidrBlocks);
+		this.defaultIp = defaultIp;
+		this.host = host;
+		this.udpPort = udpPort;
+		this.shardPortStride = shardPortStride;
+		this.replicated = replicated;
+		this.backupPortOffset = backupPortOffset;
+		this.replicationPortOffset = replicationPortOffset;
+		this.eventPortOffset = eventPortOffset;
+		this.ring = new ConsistentHashRing(id, shardCount);
+	}
+
+	public Shard getShardFor(String uName) {
+		return new Shard(this, ring.shardFor(uName));
+	}
+
+	public Shard getShard(int index) {
+		if(index < 0 || index >= getShardCount()) throw new IllegalArgumentException(String.format("Region %s has no shard %d", id, index));
+		return new Shard(this, index);
+	}
+
+	public List<Shard> getShards() {
+		List<Shard> shards = new ArrayList<>();
+		for(int index = 0; index < getShardCount(); index++) {
+			shards.add(new Shard(this, index));
+		}
+		return shards;
+	}
+
+	public int getShardCount() {
+		return ring.getShardCount();
+	}
+
+	// regions only grow; a smaller or equal count is ignored
+	public synchronized boolean resize(int shardCount) {
+		if(shardCount <= getShardCount()) return false;
+		this.ring = new ConsistentHashRing(id, shardCount);
+		return true;
+	}
+
+	public String getServerName() {
+		return "GameServer" + id;
+	}
+
+	public String getId() {
+		return id;
+	}
+	public List<CidrBlock> getCidrBlocks() {
+		return cidrBlocks;
+	}
+	public String getDefaultIp() {
+		return defaultIp;
+	}
+	public String getHost() {
+		return host;
+	}
+	public int getUdpPort() {
+		return udpPort;
+	}
+	public int getShardPortStride() {
+		return shardPortStride;
+	}
+	// whether every shard of the region runs a backup servant
+	public boolean isReplicated() {
+		return replicated;
+	}
+	public int getBackupPortOffset() {
+		return backupPortOffset;
+	}
+	public int getReplicationPortOffset() {
+		return replicationPortOffset;
+	}
+	public int getEventPortOffset() {
+		return eventPortOffset;
+	}
+}
@@ -0,0 +1,98 @@
+package topology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures region lookups over random IPv4 addresses: RoutingBenchmark [addresses] [seed]
+public class RoutingBenchmark {
+
+	public static void main(String[] args) {
+		int addressCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 6231L;
+		Random random = new Random(seed);
+
+		Topology topology = Topology.getDefault();
+		CidrRoutingTrie<Region> trie = new CidrRoutingTrie<>();
+		List<CidrBlock> blocks = new ArrayList<>();
+		List<Region> owners = new ArrayList<>();
+		for(Region region : topology.getRegions()) {
+			for(CidrBlock block : region.getCidrBlocks()) {
+				trie.insert(block, region);
+				blocks.add(block);
+				owners.add(region);
+			}
+		}
+		// a few thousand more specific routes so the trie has some depth to walk
+		for(int i = 0; i < 4096; i++) {
+			CidrBlock block = new CidrBlock(random.nextInt(), 16 + random.nextInt(17));
+			Region owner = owners.get(random.nextInt(owners.size()));
+			trie.insert(block, owner);
+			blocks.add(block);
+			owners.add(owner);
+		}
+
+		int[] addresses = new int[addressCount];
+		for(int i = 0; i < addressCount; i++) {
+			addresses[i] = random.nextInt();
+		}
+		String[] dottedAddresses = new String[Math.min(addressCount, 1_000_000)];
+		for(int i = 0; i < dottedAddresses.length; i++) {
+			dottedAddresses[i] = IPv4.format(addresses[i]);
+		}
+
+		verify(trie, blocks, owners, addresses, 10_000);
+
+		for(int round = 0; round < 3; round++) {
+			runIntLookups(trie, addresses); // warm-up
+		}
+		long start = System.nanoTime();
+		int hits = runIntLookups(trie, addresses);
+		long intNanos = System.nanoTime() - start;
+
+		runStringLookups(trie, dottedAddresses); // warm-up
+		start = System.nanoTime();
+		int stringHits = runStringLookups(trie, dottedAddresses);
+		long stringNanos = System.nanoTime() - start;
+
+		System.out.println(String.format("Trie: %d routes in %d nodes", trie.getRouteCount(), trie.getNodeCount()));
+		System.out.println(String.format("int lookups:    %,d addresses, %d routed, %.1f ns/lookup, %.1f M lookups/s",
+				addressCount, hits, (double) intNanos / addressCount, addressCount * 1e3 / intNanos));
+		System.out.println(String.format("string lookups: %,d addresses, %d routed, %.1f ns/lookup, %.1f M lookups/s",
+				dottedAddresses.length, stringHits, (double) stringNanos / dottedAddresses.length, dottedAddresses.length * 1e3 / stringNanos));
+	}
+
+	private static int runIntLookups(CidrRoutingTrie<Region> trie, int[] addresses) {
+		int hits = 0;
+		for(int address : addresses) {
+			if(trie.lookup(address) != null) hits++;
+		}
+		return hits;
+	}
+
+	private static int runStringLookups(CidrRoutingTrie<Region> trie, String[] addresses) {
+		int hits = 0;
+		for(String address : addresses) {
+			if(trie.lookup(address) != null) hits++;
+		}
+		return hits;
+	}
+
+	// compares the trie with a linear longest-prefix scan over the same blocks
+	private static void verify(CidrRoutingTrie<Region> trie, List<CidrBlock> blocks, List<Region> owners, int[] addresses, int samples) {
+		for(int i = 0; i < Math.min(samples, addresses.length); i++) {
+			Region expected = null;
+			int longest = -1;
+			for(int b = 0; b < blocks.size(); b++) {
+				CidrBlock block = blocks.get(b);
+				if(block.contains(addresses[i]) && block.getPrefixLength() >= longest) {
+					expected = owners.get(b);
+					longest = block.getPrefixLength();
+				}
+			}
+			if(trie.lookup(addresses[i]) != expected) {
+				throw new IllegalStateException("Trie disagrees with linear scan for " + IPv4.format(addresses[i]));
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package topology;
+
+// One servant process of a region: GameServer<region>-<index>
+public class Shard {
+
+	private final Region region;
+	private final int index;
+
+	public Shard(Region region, int index) {
+		this.region = region;
+		this.index = index;
+	}
+
+	public String getServerName() {
+		return region.getServerName() + "-" + index;
+	}
+
+	// "NA" for the first shard so single-shard regions keep their old log names, "NA-2" otherwise
+	public String getLabel() {
+		return index == 0 ? region.getId() : region.getId() + "-" + index;
+	}
+
+	public String getHost() {
+		return region.getHost();
+	}
+
+	public int getUdpPort() {
+		return region.getUdpPort() + index * region.getShardPortStride();
+	}
+
+	// a backup answers read-only requests on its own UDP port and follows its primary over TCP
+	public String getBackupServerName() {
+		return getServerName() + "-backup";
+	}
+
+	public int getBackupUdpPort() {
+		return getUdpPort() + region.getBackupPortOffset();
+	}
+
+	public int getReplicationPort() {
+		return getUdpPort() + region.getReplicationPortOffset();
+	}
+
+	// player events are streamed to local subscribers over TCP
+	public int getEventPort() {
+		return getUdpPort() + region.getEventPortOffset();
+	}
+
+	public Region getRegion() {
+		return region;
+	}
+	public int getIndex() {
+		return index;
+	}
+}
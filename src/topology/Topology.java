@@ -0,0 +1,118 @@
+package topology;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import exceptions.UnknownServerRegionException;
+
+// Regions of the game and how to reach them, read from topology.properties on the classpath
+// or from the file named by the gameserver.topology system property
+public class Topology {
+
+	public static final String TOPOLOGY_PROPERTY = "gameserver.topology";
+	private static final String DEFAULT_RESOURCE = "/topology.properties";
+	private static Topology defaultTopology;
+
+	private final Map<String, Region> regions;
+	private final CidrRoutingTrie<Region> routes = new CidrRoutingTrie<>();
+
+	public Topology(List<Region> regions) {
+		Map<String, Region> regionsById = new LinkedHashMap<>();
+		for(Region region : regions) {
+			regionsById.put(region.getId(), region);
+			for(CidrBlock block : region.getCidrBlocks()) {
+				routes.insert(block, region);
+			}
+		}
+		this.regions = Collections.unmodifiableMap(regionsById);
+	}
+
+	public static synchronized Topology getDefault() {
+		if(defaultTopology == null) {
+			defaultTopology = load();
+		}
+		return defaultTopology;
+	}
+
+	public static Topology load() {
+		String path = System.getProperty(TOPOLOGY_PROPERTY);
+		try(InputStream in = path != null ? new FileInputStream(path) : Topology.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+			if(in == null) throw new IllegalStateException("No " + DEFAULT_RESOURCE + " found on the classpath");
+			Properties properties = new Properties();
+			properties.load(in);
+			return fromProperties(properties);
+		} catch(IOException e) {
+			throw new IllegalStateException("Could not read region topology: " + e.getMessage(), e);
+		}
+	}
+
+	public static Topology fromProperties(Properties properties) {
+		List<Region> regions = new ArrayList<>();
+		int shardPortStride = Integer.parseInt(properties.getProperty("shardPortStride", "10").trim());
+		int backupPortOffset = Integer.parseInt(properties.getProperty("backupPortOffset", "100").trim());
+		int replicationPortOffset = Integer.parseInt(properties.getProperty("replicationPortOffset", "200").trim());
+		int eventPortOffset = Integer.parseInt(properties.getProperty("eventPortOffset", "300").trim());
+		for(String id : splitList(required(properties, "regions"))) {
+			String key = "region." + id + ".";
+			regions.add(new Region(id,
+					splitList(required(properties, key + "cidrBlocks")).stream().map(CidrBlock::parse).collect(Collectors.toList()),
+					required(properties, key + "defaultIp"),
+					properties.getProperty(key + "host", "127.0.0.1").trim(),
+					Integer.parseInt(required(properties, key + "udpPort")),
+					Integer.parseInt(properties.getProperty(key + "shards", "1").trim()),
+					shardPortStride,
+					Boolean.parseBoolean(properties.getProperty(key + "backup", "false").trim()),
+					backupPortOffset,
+					replicationPortOffset,
+					eventPortOffset));
+		}
+		return new Topology(regions);
+	}
+
+	private static String required(Properties properties, String key) {
+		String value = properties.getProperty(key);
+		if(value == null || value.trim().isEmpty()) throw new IllegalStateException("Missing topology property " + key);
+		return value.trim();
+	}
+
+	private static List<String> splitList(String value) {
+		return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).collect(Collectors.toList());
+	}
+
+	public Region getRegion(String id) throws UnknownServerRegionException {
+		Region region = regions.get(id);
+		if(region == null) throw new UnknownServerRegionException();
+		return region;
+	}
+
+	public boolean hasRegion(String id) {
+		return regions.containsKey(id);
+	}
+
+	public Region getRegionForIpAddress(String ipAddress) throws UnknownServerRegionException {
+		Region region = routes.lookup(ipAddress);
+		if(region == null) throw new UnknownServerRegionException();
+		return region;
+	}
+
+	public List<Region> getRegions() {
+		return new ArrayList<>(regions.values());
+	}
+
+	public List<Region> getPeers(String id) {
+		return regions.values().stream().filter(region -> !region.getId().equals(id)).collect(Collectors.toList());
+	}
+
+	public List<String> getRegionIds() {
+		return new ArrayList<>(regions.keySet());
+	}
+}